@@ -3,56 +3,130 @@ package ru.practicum.shareit.booking;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import ru.practicum.shareit.booking.dto.BookingFilter;
 import ru.practicum.shareit.booking.dto.CreatingBookingDto;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClientRequest;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.GatewayResponseCache;
+import ru.practicum.shareit.config.HttpClientProperties;
 
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
+
+import static ru.practicum.shareit.client.GatewayResponseCache.ITEMS;
+import static ru.practicum.shareit.client.GatewayResponseCache.tag;
+import static ru.practicum.shareit.util.Constant.DATE_TIME_FORMATTER;
+import static ru.practicum.shareit.util.Constant.HEADER_USER_ID;
 
 @Service
 public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
+    private static final ParameterizedTypeReference<ServerSentEvent<String>> SERVER_SENT_EVENT =
+            new ParameterizedTypeReference<>() {
+            };
+
+    private final HttpClientProperties httpClientProperties;
+    private final int streamBufferSize;
 
     @Autowired
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public BookingClient(@Value("${shareit-server.url}") String serverUrl,
+                         @Value("${shareit-server.reactive}") boolean reactive,
+                         RestTemplateBuilder builder,
+                         ClientHttpRequestFactory requestFactory,
+                         WebClient.Builder webClientBuilder,
+                         GatewayResponseCache responseCache,
+                         HttpClientProperties httpClientProperties,
+                         @Value("${shareit.stream.buffer-size}") int streamBufferSize) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .requestFactory(() -> requestFactory)
+                        .build(),
+                webClientBuilder
+                        .baseUrl(serverUrl + API_PREFIX)
+                        .build(),
+                reactive,
+                responseCache
         );
+        this.httpClientProperties = httpClientProperties;
+        this.streamBufferSize = streamBufferSize;
     }
 
-    public ResponseEntity<Object> getBookings(long userId, String state, int from, int size) {
-        Map<String, Object> parameters = Map.of(
-                "state", state,
-                "from", from,
-                "size", size
-        );
-        return get("?state={state}&from={from}&size={size}", userId, parameters);
+    public Mono<ResponseEntity<Object>> getBookings(long userId, String state, int from, int size, BookingFilter filter) {
+        return getBookings("", userId, state, from, size, filter);
     }
 
-    public ResponseEntity<Object> getOwnerBookings(long userId, String state, int from, int size) {
-        Map<String, Object> parameters = Map.of(
-                "state", state,
-                "from", from,
-                "size", size
-        );
-        return get("/owner?state={state}&from={from}&size={size}", userId, parameters);
+    public Mono<ResponseEntity<Object>> getOwnerBookings(long userId, String state, int from, int size, BookingFilter filter) {
+        return getBookings("/owner", userId, state, from, size, filter);
     }
 
-    public ResponseEntity<Object> getBooking(long userId, long bookingId) {
+    public Mono<ResponseEntity<Object>> getBooking(long userId, long bookingId) {
         return get("/" + bookingId, userId);
     }
 
-    public ResponseEntity<Object> addBooking(long userId, CreatingBookingDto createBookingDto) {
+    public Mono<ResponseEntity<Object>> addBooking(long userId, CreatingBookingDto createBookingDto) {
         return post("", userId, createBookingDto);
     }
 
-    public ResponseEntity<Object> approveBooking(long userId, long bookingId, Boolean approved) {
-        return patch(String.format("/%s?approved=%s", bookingId, approved), userId);
+    public Mono<ResponseEntity<Object>> addBookings(long userId, List<CreatingBookingDto> creatingBookingDtos) {
+        return post("/batch", userId, creatingBookingDtos);
+    }
+
+    public Mono<ResponseEntity<Object>> approveBooking(long userId, long bookingId, Boolean approved) {
+        return evicting(patch(String.format("/%s?approved=%s", bookingId, approved), userId),
+                booking -> List.of(tag(ITEMS, booking.path("item").path("id").asLong())));
+    }
+
+    public Flux<ServerSentEvent<String>> streamBookings(long userId) {
+        return webClient.get()
+                .uri("/stream")
+                .header(HEADER_USER_ID, String.valueOf(userId))
+                .accept(MediaType.TEXT_EVENT_STREAM, MediaType.APPLICATION_JSON)
+                .httpRequest(request -> request.<HttpClientRequest>getNativeRequest()
+                        .responseTimeout(httpClientProperties.getStreamReadTimeout()))
+                .retrieve()
+                .bodyToFlux(SERVER_SENT_EVENT)
+                .onBackpressureBuffer(streamBufferSize);
+    }
+
+    private Mono<ResponseEntity<Object>> getBookings(String path, long userId, String state, int from, int size, BookingFilter filter) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        parameters.put("state", state);
+        parameters.put("from", from);
+        parameters.put("size", size);
+
+        if (filter.getItemId() != null) {
+            parameters.put("itemId", filter.getItemId());
+        }
+
+        if (filter.getStart() != null) {
+            parameters.put("start", filter.getStart().format(DATE_TIME_FORMATTER));
+        }
+
+        if (filter.getEnd() != null) {
+            parameters.put("end", filter.getEnd().format(DATE_TIME_FORMATTER));
+        }
+
+        if (filter.getAfter() != null) {
+            parameters.put("after", filter.getAfter().format());
+        }
+
+        String query = parameters.keySet().stream()
+                .map(name -> String.format("%s={%s}", name, name))
+                .collect(Collectors.joining("&", path + "?", ""));
+
+        return get(query, userId, parameters);
     }
 }
@@ -1,17 +1,30 @@
 package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingFilter;
 import ru.practicum.shareit.booking.dto.CreatingBookingDto;
+import ru.practicum.shareit.util.Validator;
 import ru.practicum.shareit.util.marker.OnCreate;
 
 import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.Size;
+import java.time.LocalDateTime;
+import java.util.List;
 
+import static org.springframework.format.annotation.DateTimeFormat.ISO.DATE_TIME;
 import static ru.practicum.shareit.util.Constant.*;
 
 @Controller
@@ -22,37 +35,67 @@ public class GatewayBookingController {
     private final BookingClient client;
 
     @PostMapping
-    public ResponseEntity<Object> addBooking(@RequestHeader(HEADER_USER_ID) long userId,
-                                             @RequestBody @Validated(OnCreate.class) CreatingBookingDto creatingBookingDto) {
+    public Mono<ResponseEntity<Object>> addBooking(@RequestHeader(HEADER_USER_ID) long userId,
+                                                   @RequestBody @Validated(OnCreate.class) CreatingBookingDto creatingBookingDto) {
         return client.addBooking(userId, creatingBookingDto);
     }
 
+    @PostMapping("/batch")
+    public Mono<ResponseEntity<Object>> addBookings(@RequestHeader(HEADER_USER_ID) long userId,
+                                                    @RequestBody @NotEmpty @Size(max = MAX_BATCH_SIZE) List<CreatingBookingDto> creatingBookingDtos) {
+        return client.addBookings(userId, creatingBookingDtos);
+    }
+
     @PatchMapping("/{bookingId}")
-    public ResponseEntity<Object> approveBooking(@RequestHeader(HEADER_USER_ID) long userId,
-                                                 @PathVariable long bookingId,
-                                                 @RequestParam Boolean approved) {
+    public Mono<ResponseEntity<Object>> approveBooking(@RequestHeader(HEADER_USER_ID) long userId,
+                                                       @PathVariable long bookingId,
+                                                       @RequestParam Boolean approved) {
         return client.approveBooking(userId, bookingId, approved);
     }
 
     @GetMapping("/{bookingId}")
-    public ResponseEntity<Object> getBooking(@RequestHeader(HEADER_USER_ID) long userId,
-                                             @PathVariable long bookingId) {
+    public Mono<ResponseEntity<Object>> getBooking(@RequestHeader(HEADER_USER_ID) long userId,
+                                                   @PathVariable long bookingId) {
         return client.getBooking(userId, bookingId);
     }
 
     @GetMapping
-    public ResponseEntity<Object> getBookings(@RequestHeader(HEADER_USER_ID) long userId,
-                                              @RequestParam(defaultValue = "ALL") String state,
-                                              @RequestParam(defaultValue = DEFAULT_START_PAGE) @Valid @PositiveOrZero Integer from,
-                                              @RequestParam(defaultValue = DEFAULT_SIZE_PAGE) @Valid @Positive Integer size) {
-        return client.getBookings(userId, state, from, size);
+    public Mono<ResponseEntity<Object>> getBookings(@RequestHeader(HEADER_USER_ID) long userId,
+                                                    @RequestParam(defaultValue = "ALL") String state,
+                                                    @RequestParam(defaultValue = DEFAULT_START_PAGE) @Valid @PositiveOrZero Integer from,
+                                                    @RequestParam(defaultValue = DEFAULT_SIZE_PAGE) @Valid @Positive Integer size,
+                                                    @RequestParam(required = false) @Valid @Positive Long itemId,
+                                                    @RequestParam(required = false) @DateTimeFormat(iso = DATE_TIME) LocalDateTime start,
+                                                    @RequestParam(required = false) @DateTimeFormat(iso = DATE_TIME) LocalDateTime end,
+                                                    @RequestParam(required = false) String after) {
+        return client.getBookings(userId, state, from, size, toFilter(itemId, start, end, after));
     }
 
     @GetMapping("/owner")
-    public ResponseEntity<Object> getOwnerBookings(@RequestHeader(HEADER_USER_ID) long userId,
-                                                   @RequestParam(defaultValue = "ALL") String state,
-                                                   @RequestParam(defaultValue = DEFAULT_START_PAGE) @Valid @PositiveOrZero Integer from,
-                                                   @RequestParam(defaultValue = DEFAULT_SIZE_PAGE) @Valid @Positive Integer size) {
-        return client.getOwnerBookings(userId, state, from, size);
+    public Mono<ResponseEntity<Object>> getOwnerBookings(@RequestHeader(HEADER_USER_ID) long userId,
+                                                         @RequestParam(defaultValue = "ALL") String state,
+                                                         @RequestParam(defaultValue = DEFAULT_START_PAGE) @Valid @PositiveOrZero Integer from,
+                                                         @RequestParam(defaultValue = DEFAULT_SIZE_PAGE) @Valid @Positive Integer size,
+                                                         @RequestParam(required = false) @Valid @Positive Long itemId,
+                                                         @RequestParam(required = false) @DateTimeFormat(iso = DATE_TIME) LocalDateTime start,
+                                                         @RequestParam(required = false) @DateTimeFormat(iso = DATE_TIME) LocalDateTime end,
+                                                         @RequestParam(required = false) String after) {
+        return client.getOwnerBookings(userId, state, from, size, toFilter(itemId, start, end, after));
+    }
+
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<String>> streamBookings(@RequestHeader(HEADER_USER_ID) long userId) {
+        return client.streamBookings(userId);
+    }
+
+    private BookingFilter toFilter(Long itemId, LocalDateTime start, LocalDateTime end, String after) {
+        Validator.validateRange(start, end);
+
+        return BookingFilter.builder()
+                .itemId(itemId)
+                .start(start)
+                .end(end)
+                .after(after == null ? null : BookingCursor.parse(after))
+                .build();
     }
 }
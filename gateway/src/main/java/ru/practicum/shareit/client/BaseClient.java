@@ -1,96 +1,163 @@
 package ru.practicum.shareit.client;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.MissingNode;
 import org.springframework.http.*;
 import org.springframework.lang.Nullable;
 import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 
 import static ru.practicum.shareit.util.Constant.HEADER_USER_ID;
 
 public class BaseClient {
+    private static final Set<String> HOP_BY_HOP_HEADERS = Set.of("connection", "keep-alive", "transfer-encoding",
+            "te", "trailer", "upgrade", "proxy-authenticate", "proxy-authorization", "content-length");
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
     protected final RestTemplate rest;
+    protected final WebClient webClient;
+    private final boolean reactive;
+    private final GatewayResponseCache responseCache;
 
-    public BaseClient(RestTemplate rest) {
+    public BaseClient(RestTemplate rest, WebClient webClient, boolean reactive, GatewayResponseCache responseCache) {
         this.rest = rest;
+        this.webClient = webClient;
+        this.reactive = reactive;
+        this.responseCache = responseCache;
     }
 
-    protected ResponseEntity<Object> get(String path) {
+    protected Mono<ResponseEntity<Object>> get(String path) {
         return get(path, null, null);
     }
 
-    protected ResponseEntity<Object> get(String path, long userId) {
+    protected Mono<ResponseEntity<Object>> get(String path, long userId) {
         return get(path, userId, null);
     }
 
-    protected ResponseEntity<Object> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
+    protected Mono<ResponseEntity<Object>> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
         return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, T body) {
+    protected Mono<ResponseEntity<Object>> cachedGet(String region, String path, Long userId, String... tags) {
+        return cachedGet(region, path, userId, null, tags);
+    }
+
+    protected Mono<ResponseEntity<Object>> cachedGet(String region, String path, Long userId, @Nullable Map<String, Object> parameters, String... tags) {
+        return responseCache.get(region, path, userId, parameters, List.of(tags),
+                eTag -> makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null, eTag));
+    }
+
+    protected Mono<ResponseEntity<Object>> evicting(Mono<ResponseEntity<Object>> response, String... tags) {
+        return response.doFinally(signal -> responseCache.evict(tags));
+    }
+
+    protected Mono<ResponseEntity<Object>> evicting(Mono<ResponseEntity<Object>> response, Function<JsonNode, List<String>> tags) {
+        return response.doOnNext(entity -> {
+            if (entity.getStatusCode().is2xxSuccessful() && entity.getBody() instanceof byte[]) {
+                responseCache.evict(tags.apply(readTree((byte[]) entity.getBody())));
+            }
+        });
+    }
+
+    protected <T> Mono<ResponseEntity<Object>> post(String path, T body) {
         return post(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, long userId, T body) {
+    protected <T> Mono<ResponseEntity<Object>> post(String path, long userId, T body) {
         return post(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> Mono<ResponseEntity<Object>> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.POST, path, userId, parameters, body);
     }
 
-    protected <T> ResponseEntity<Object> put(String path, long userId, T body) {
+    protected <T> Mono<ResponseEntity<Object>> put(String path, long userId, T body) {
         return put(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> put(String path, long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> Mono<ResponseEntity<Object>> put(String path, long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.PUT, path, userId, parameters, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, T body) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, T body) {
         return patch(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, long userId) {
         return patch(path, userId, null, null);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId, T body) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, long userId, T body) {
         return patch(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.PATCH, path, userId, parameters, body);
     }
 
-    protected ResponseEntity<Object> delete(String path) {
+    protected Mono<ResponseEntity<Object>> delete(String path) {
         return delete(path, null, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, long userId) {
+    protected Mono<ResponseEntity<Object>> delete(String path, long userId) {
         return delete(path, userId, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
+    protected Mono<ResponseEntity<Object>> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
         return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
     }
 
-    private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
-        HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
+    private <T> Mono<ResponseEntity<Object>> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
+        return makeAndSendRequest(method, path, userId, parameters, body, null);
+    }
+
+    private <T> Mono<ResponseEntity<Object>> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body, @Nullable String eTag) {
+        HttpHeaders headers = defaultHeaders(userId);
+        if (eTag != null) {
+            headers.setIfNoneMatch(eTag);
+        }
 
-        ResponseEntity<Object> shareitServerResponse;
+        if (reactive) {
+            return exchange(method, path, headers, parameters, body);
+        }
+
+        return Mono.fromSupplier(() -> restExchange(method, path, headers, parameters, body));
+    }
+
+    private <T> ResponseEntity<Object> restExchange(HttpMethod method, String path, HttpHeaders headers, @Nullable Map<String, Object> parameters, @Nullable T body) {
+        HttpEntity<T> requestEntity = new HttpEntity<>(body, headers);
+
+        ResponseEntity<byte[]> shareitServerResponse;
         try {
             if (parameters != null) {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class, parameters);
+                shareitServerResponse = rest.exchange(path, method, requestEntity, byte[].class, parameters);
             } else {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class);
+                shareitServerResponse = rest.exchange(path, method, requestEntity, byte[].class);
             }
         } catch (HttpStatusCodeException e) {
-            return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
+            return prepareGatewayResponse(e.getRawStatusCode(), e.getResponseHeaders(), e.getResponseBodyAsByteArray());
         }
-        return prepareGatewayResponse(shareitServerResponse);
+        return prepareGatewayResponse(shareitServerResponse.getStatusCodeValue(), shareitServerResponse.getHeaders(),
+                shareitServerResponse.getBody());
+    }
+
+    private <T> Mono<ResponseEntity<Object>> exchange(HttpMethod method, String path, HttpHeaders headers, @Nullable Map<String, Object> parameters, @Nullable T body) {
+        WebClient.RequestBodySpec request = webClient.method(method)
+                .uri(path, parameters != null ? parameters : Map.of())
+                .headers(requestHeaders -> requestHeaders.addAll(headers));
+
+        return (body != null ? request.bodyValue(body) : request)
+                .exchangeToMono(response -> response.toEntity(byte[].class))
+                .map(response -> prepareGatewayResponse(response.getStatusCodeValue(), response.getHeaders(), response.getBody()));
     }
 
     private HttpHeaders defaultHeaders(Long userId) {
@@ -103,15 +170,27 @@ public class BaseClient {
         return headers;
     }
 
-    private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<Object> response) {
-        if (response.getStatusCode().is2xxSuccessful()) {
-            return response;
+    private static JsonNode readTree(byte[] body) {
+        try {
+            return OBJECT_MAPPER.readTree(body);
+        } catch (IOException e) {
+            return MissingNode.getInstance();
         }
+    }
+
+    private static ResponseEntity<Object> prepareGatewayResponse(int status, @Nullable HttpHeaders headers, @Nullable byte[] body) {
+        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(status);
 
-        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode());
+        if (headers != null) {
+            headers.forEach((name, values) -> {
+                if (!HOP_BY_HOP_HEADERS.contains(name.toLowerCase())) {
+                    responseBuilder.header(name, values.toArray(String[]::new));
+                }
+            });
+        }
 
-        if (response.hasBody()) {
-            return responseBuilder.body(response.getBody());
+        if (body != null && body.length > 0) {
+            return responseBuilder.body(body);
         }
 
         return responseBuilder.build();
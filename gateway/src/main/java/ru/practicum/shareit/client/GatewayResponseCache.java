@@ -0,0 +1,156 @@
+package ru.practicum.shareit.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+@Component
+public class GatewayResponseCache {
+    public static final String USERS = "users";
+    public static final String ITEMS = "items";
+    public static final String REQUESTS = "requests";
+    public static final String LISTS = "all";
+
+    private static final String NO_STORE = CacheControl.noStore().getHeaderValue();
+    private static final String PRIVATE = "private";
+
+    private final Cache<Key, Entry> cache;
+    private final Map<String, Set<Key>> keysByTag = new ConcurrentHashMap<>();
+    private final AtomicLong evictions = new AtomicLong();
+    private final long freshNanos;
+
+    public GatewayResponseCache(@Value("${shareit-server.cache.spec}") String spec,
+                                @Value("${shareit-server.cache.fresh-for}") Duration freshFor,
+                                MeterRegistry meterRegistry) {
+        this.cache = Caffeine.from(spec)
+                .removalListener((Key key, Entry entry, RemovalCause cause) -> {
+                    if (key != null) {
+                        unindex(key);
+                    }
+                })
+                .build();
+        this.freshNanos = freshFor.toNanos();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "gateway-responses");
+    }
+
+    public static String tag(String region, Object id) {
+        return region + ":" + id;
+    }
+
+    public Mono<ResponseEntity<Object>> get(String region, String path, @Nullable Long userId,
+                                            @Nullable Map<String, Object> parameters,
+                                            Collection<String> tags,
+                                            Function<String, Mono<ResponseEntity<Object>>> loader) {
+        Set<String> keyTags = new HashSet<>(tags);
+        keyTags.add(region);
+        Key key = new Key(region, path, parameters, userId, Set.copyOf(keyTags));
+
+        return Mono.defer(() -> {
+            Entry cached = cache.getIfPresent(key);
+            if (cached != null && cached.isFresh(freshNanos)) {
+                return Mono.just(cached.response);
+            }
+
+            String eTag = cached != null ? cached.response.getHeaders().getETag() : null;
+            long loadedEvictions = evictions.get();
+
+            return loader.apply(eTag)
+                    .map(response -> {
+                        if (cached != null && response.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+                            store(key, cached.response, loadedEvictions);
+                            return cached.response;
+                        }
+
+                        if (isCacheable(response)) {
+                            store(key, response, loadedEvictions);
+                        }
+
+                        return response;
+                    });
+        });
+    }
+
+    public void evict(String... tags) {
+        evict(List.of(tags));
+    }
+
+    public void evict(Collection<String> tags) {
+        evictions.incrementAndGet();
+        tags.forEach(tag -> {
+            Set<Key> keys = keysByTag.remove(tag);
+            if (keys != null) {
+                cache.invalidateAll(keys);
+            }
+        });
+    }
+
+    private void store(Key key, ResponseEntity<Object> response, long loadedEvictions) {
+        cache.put(key, new Entry(response, System.nanoTime()));
+        key.tags.forEach(tag -> keysByTag.computeIfAbsent(tag, t -> ConcurrentHashMap.newKeySet()).add(key));
+
+        if (evictions.get() != loadedEvictions) {
+            cache.invalidate(key);
+        }
+    }
+
+    private void unindex(Key key) {
+        key.tags.forEach(tag -> keysByTag.computeIfPresent(tag, (t, keys) -> {
+            if (!cache.asMap().containsKey(key)) {
+                keys.remove(key);
+            }
+
+            return keys.isEmpty() ? null : keys;
+        }));
+    }
+
+    private static boolean isCacheable(ResponseEntity<Object> response) {
+        if (response.getStatusCode() != HttpStatus.OK) {
+            return false;
+        }
+
+        String cacheControl = response.getHeaders().getCacheControl();
+
+        return cacheControl == null || !(cacheControl.contains(PRIVATE) || cacheControl.contains(NO_STORE));
+    }
+
+    @RequiredArgsConstructor
+    private static class Entry {
+        private final ResponseEntity<Object> response;
+        private final long storedAt;
+
+        private boolean isFresh(long freshNanos) {
+            return System.nanoTime() - storedAt < freshNanos;
+        }
+    }
+
+    @RequiredArgsConstructor
+    @EqualsAndHashCode(exclude = "tags")
+    private static class Key {
+        private final String region;
+        private final String path;
+        private final Map<String, Object> parameters;
+        private final Long userId;
+        private final Set<String> tags;
+    }
+}
@@ -0,0 +1,70 @@
+package ru.practicum.shareit.config;
+
+import io.netty.channel.ChannelOption;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+@EnableConfigurationProperties(HttpClientProperties.class)
+public class HttpClientConfig {
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager connectionManager(HttpClientProperties properties) {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(properties.getMaxTotal());
+        connectionManager.setDefaultMaxPerRoute(properties.getMaxPerRoute());
+        connectionManager.setValidateAfterInactivity((int) properties.getValidateAfterInactivity().toMillis());
+        return connectionManager;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient httpClient(PoolingHttpClientConnectionManager connectionManager,
+                                          HttpClientProperties properties) {
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout((int) properties.getConnectTimeout().toMillis())
+                .setConnectionRequestTimeout((int) properties.getConnectionRequestTimeout().toMillis())
+                .setSocketTimeout((int) properties.getReadTimeout().toMillis())
+                .build();
+
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .evictExpiredConnections()
+                .evictIdleConnections(properties.getIdleTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    @Bean
+    public ClientHttpRequestFactory clientHttpRequestFactory(CloseableHttpClient httpClient) {
+        return new HttpComponentsClientHttpRequestFactory(httpClient);
+    }
+
+    @Bean
+    public ClientHttpConnector clientHttpConnector(HttpClientProperties properties) {
+        ConnectionProvider connectionProvider = ConnectionProvider.builder("shareit-server")
+                .maxConnections(properties.getMaxTotal())
+                .pendingAcquireTimeout(properties.getConnectionRequestTimeout())
+                .maxIdleTime(properties.getIdleTimeout())
+                .evictInBackground(properties.getIdleTimeout())
+                .metrics(true)
+                .build();
+
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.getConnectTimeout().toMillis())
+                .responseTimeout(properties.getReadTimeout());
+
+        return new ReactorClientHttpConnector(httpClient);
+    }
+}
@@ -0,0 +1,36 @@
+package ru.practicum.shareit.config;
+
+import lombok.RequiredArgsConstructor;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Component
+@Endpoint(id = "httpclientpool")
+@RequiredArgsConstructor
+public class HttpClientPoolEndpoint {
+    private final PoolingHttpClientConnectionManager connectionManager;
+
+    @ReadOperation
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("total", toMap(connectionManager.getTotalStats()));
+        connectionManager.getRoutes()
+                .forEach(route -> stats.put(route.getTargetHost().toURI(), toMap(connectionManager.getStats(route))));
+        return stats;
+    }
+
+    private static Map<String, Integer> toMap(PoolStats poolStats) {
+        Map<String, Integer> stats = new LinkedHashMap<>();
+        stats.put("leased", poolStats.getLeased());
+        stats.put("available", poolStats.getAvailable());
+        stats.put("pending", poolStats.getPending());
+        stats.put("max", poolStats.getMax());
+        return stats;
+    }
+}
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "shareit-server.http")
+public class HttpClientProperties {
+    private int maxTotal = 200;
+    private int maxPerRoute = 100;
+    private Duration connectTimeout = Duration.ofSeconds(2);
+    private Duration connectionRequestTimeout = Duration.ofSeconds(2);
+    private Duration readTimeout = Duration.ofSeconds(10);
+    private Duration streamReadTimeout = Duration.ofMinutes(1);
+    private Duration idleTimeout = Duration.ofSeconds(30);
+    private Duration validateAfterInactivity = Duration.ofSeconds(2);
+}
@@ -0,0 +1,27 @@
+package ru.practicum.shareit.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Configuration
+@ConditionalOnProperty(name = "shareit.threads.virtual", havingValue = "true")
+public class VirtualThreadConfig {
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService virtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(String.format("Виртуальные потоки недоступны в Java %d", Runtime.version().feature()), e);
+        }
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer(ExecutorService virtualThreadExecutor) {
+        return protocolHandler -> protocolHandler.setExecutor(virtualThreadExecutor);
+    }
+}
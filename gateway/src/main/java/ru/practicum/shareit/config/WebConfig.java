@@ -0,0 +1,26 @@
+package ru.practicum.shareit.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.regex.Pattern;
+
+@Configuration
+public class WebConfig {
+    private static final Pattern CACHED_PATHS =
+            Pattern.compile("/users(/\\d+)?|/items/\\d+(/availability)?|/requests(/all|/\\d+)?");
+
+    @Bean
+    public ShallowEtagHeaderFilter shallowEtagHeaderFilter() {
+        return new ShallowEtagHeaderFilter() {
+            @Override
+            protected boolean shouldNotFilter(HttpServletRequest request) {
+                return !HttpMethod.GET.matches(request.getMethod())
+                        || !CACHED_PATHS.matcher(request.getRequestURI().substring(request.getContextPath().length())).matches();
+            }
+        };
+    }
+}
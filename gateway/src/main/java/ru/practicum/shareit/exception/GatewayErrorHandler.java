@@ -1,10 +1,13 @@
 package ru.practicum.shareit.exception;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 
 import javax.validation.ValidationException;
 import java.util.Map;
@@ -31,4 +34,11 @@ public class GatewayErrorHandler {
     public Map<String, String> badRequest(final RuntimeException e) {
         return Map.of("error", e.getMessage());
     }
+
+    @ExceptionHandler(WebClientResponseException.class)
+    public ResponseEntity<byte[]> upstream(final WebClientResponseException e) {
+        return ResponseEntity.status(e.getRawStatusCode())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(e.getResponseBodyAsByteArray());
+    }
 }
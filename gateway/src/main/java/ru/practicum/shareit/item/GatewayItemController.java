@@ -1,19 +1,24 @@
 package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.item.dto.comment.CreatingCommentDto;
 import ru.practicum.shareit.item.dto.item.CreatingItemDto;
+import ru.practicum.shareit.util.Validator;
 import ru.practicum.shareit.util.marker.OnCreate;
 
 import javax.validation.Valid;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import java.time.LocalDateTime;
 import java.util.Collections;
 
+import static org.springframework.format.annotation.DateTimeFormat.ISO.DATE_TIME;
 import static ru.practicum.shareit.util.Constant.*;
 
 @Controller
@@ -24,53 +29,63 @@ public class GatewayItemController {
     private final ItemClient client;
 
     @PostMapping
-    public ResponseEntity<Object> addItem(@RequestHeader(HEADER_USER_ID) long userId,
-                                          @RequestBody @Validated(OnCreate.class) CreatingItemDto creatingItemDto) {
+    public Mono<ResponseEntity<Object>> addItem(@RequestHeader(HEADER_USER_ID) long userId,
+                                                @RequestBody @Validated(OnCreate.class) CreatingItemDto creatingItemDto) {
         return client.addItem(userId, creatingItemDto);
     }
 
     @PatchMapping("/{itemId}")
-    public ResponseEntity<Object> updateItem(@RequestHeader(HEADER_USER_ID) long userId,
-                                             @PathVariable long itemId,
-                                             @RequestBody CreatingItemDto creatingItemDto) {
+    public Mono<ResponseEntity<Object>> updateItem(@RequestHeader(HEADER_USER_ID) long userId,
+                                                   @PathVariable long itemId,
+                                                   @RequestBody CreatingItemDto creatingItemDto) {
         return client.updateItem(userId, itemId, creatingItemDto);
     }
 
     @GetMapping("/{itemId}")
-    public ResponseEntity<Object> getItemById(@RequestHeader(HEADER_USER_ID) long userId,
-                                              @PathVariable long itemId) {
+    public Mono<ResponseEntity<Object>> getItemById(@RequestHeader(HEADER_USER_ID) long userId,
+                                                    @PathVariable long itemId) {
         return client.getItemById(userId, itemId);
     }
 
+    @GetMapping("/{itemId}/availability")
+    public Mono<ResponseEntity<Object>> getItemAvailability(@RequestHeader(HEADER_USER_ID) long userId,
+                                                            @PathVariable long itemId,
+                                                            @RequestParam @DateTimeFormat(iso = DATE_TIME) LocalDateTime from,
+                                                            @RequestParam @DateTimeFormat(iso = DATE_TIME) LocalDateTime to) {
+        Validator.validateRange(from, to);
+
+        return client.getItemAvailability(userId, itemId, from, to);
+    }
+
     @GetMapping
-    public ResponseEntity<Object> getOwnerItems(@RequestHeader(HEADER_USER_ID) long userId,
-                                                @RequestParam(defaultValue = DEFAULT_START_PAGE) @Valid @PositiveOrZero Integer from,
-                                                @RequestParam(defaultValue = DEFAULT_SIZE_PAGE) @Valid @Positive Integer size) {
+    public Mono<ResponseEntity<Object>> getOwnerItems(@RequestHeader(HEADER_USER_ID) long userId,
+                                                      @RequestParam(defaultValue = DEFAULT_START_PAGE) @Valid @PositiveOrZero Integer from,
+                                                      @RequestParam(defaultValue = DEFAULT_SIZE_PAGE) @Valid @Positive Integer size) {
         return client.getOwnerItems(userId, from, size);
     }
 
     @GetMapping("/search")
-    public ResponseEntity<Object> findItem(@RequestHeader(HEADER_USER_ID) long userId,
-                                           @RequestParam String text,
-                                           @RequestParam(defaultValue = DEFAULT_START_PAGE) @Valid @PositiveOrZero Integer from,
-                                           @RequestParam(defaultValue = DEFAULT_SIZE_PAGE) @Valid @Positive Integer size) {
+    public Mono<ResponseEntity<Object>> findItem(@RequestHeader(HEADER_USER_ID) long userId,
+                                                 @RequestParam String text,
+                                                 @RequestParam(defaultValue = DEFAULT_START_PAGE) @Valid @PositiveOrZero Integer from,
+                                                 @RequestParam(defaultValue = DEFAULT_SIZE_PAGE) @Valid @Positive Integer size) {
         if (text.isBlank()) {
-            return ResponseEntity.ok(Collections.emptyList());
+            return Mono.just(ResponseEntity.ok(Collections.emptyList()));
         }
 
         return client.findItem(userId, text, from, size);
     }
 
     @PostMapping("/{itemId}/comment")
-    public ResponseEntity<Object> addComment(@RequestHeader(HEADER_USER_ID) long userId,
-                                             @PathVariable long itemId,
-                                             @RequestBody @Validated(OnCreate.class) CreatingCommentDto creatingCommentDto) {
+    public Mono<ResponseEntity<Object>> addComment(@RequestHeader(HEADER_USER_ID) long userId,
+                                                   @PathVariable long itemId,
+                                                   @RequestBody @Validated(OnCreate.class) CreatingCommentDto creatingCommentDto) {
         return client.addComment(userId, itemId, creatingCommentDto);
     }
 
     @DeleteMapping("/{itemId}")
-    public void delete(@RequestHeader(HEADER_USER_ID) long userId,
-                       @PathVariable long itemId) {
-        client.delete(userId, itemId);
+    public Mono<ResponseEntity<Object>> delete(@RequestHeader(HEADER_USER_ID) long userId,
+                                               @PathVariable long itemId) {
+        return client.delete(userId, itemId);
     }
 }
@@ -1,52 +1,86 @@
 package ru.practicum.shareit.item;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.GatewayResponseCache;
 import ru.practicum.shareit.item.dto.comment.CreatingCommentDto;
 import ru.practicum.shareit.item.dto.item.CreatingItemDto;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
+import static ru.practicum.shareit.client.GatewayResponseCache.ITEMS;
+import static ru.practicum.shareit.client.GatewayResponseCache.LISTS;
+import static ru.practicum.shareit.client.GatewayResponseCache.REQUESTS;
+import static ru.practicum.shareit.client.GatewayResponseCache.tag;
+import static ru.practicum.shareit.util.Constant.DATE_TIME_FORMATTER;
+
 @Service
 public class ItemClient extends BaseClient {
     private static final String API_PREFIX = "/items";
 
     @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemClient(@Value("${shareit-server.url}") String serverUrl,
+                      @Value("${shareit-server.reactive}") boolean reactive,
+                      RestTemplateBuilder builder,
+                      ClientHttpRequestFactory requestFactory,
+                      WebClient.Builder webClientBuilder,
+                      GatewayResponseCache responseCache) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .requestFactory(() -> requestFactory)
+                        .build(),
+                webClientBuilder
+                        .baseUrl(serverUrl + API_PREFIX)
+                        .build(),
+                reactive,
+                responseCache
         );
     }
 
-    public ResponseEntity<Object> addItem(long userId, CreatingItemDto creatingItemDto) {
-        return post("", userId, creatingItemDto);
+    public Mono<ResponseEntity<Object>> addItem(long userId, CreatingItemDto creatingItemDto) {
+        return evicting(post("", userId, creatingItemDto), ItemClient::requestTags);
+    }
+
+    public Mono<ResponseEntity<Object>> updateItem(long userId, long itemId, CreatingItemDto creatingItemDto) {
+        return evicting(patch("/" + itemId, userId, creatingItemDto), item -> {
+            List<String> tags = new ArrayList<>(requestTags(item));
+            tags.add(tag(ITEMS, itemId));
+            return tags;
+        });
     }
 
-    public ResponseEntity<Object> updateItem(long userId, long itemId, CreatingItemDto creatingItemDto) {
-        return patch("/" + itemId, userId, creatingItemDto);
+    public Mono<ResponseEntity<Object>> getItemById(long userId, long itemId) {
+        return cachedGet(ITEMS, "/" + itemId, userId, tag(ITEMS, itemId));
     }
 
-    public ResponseEntity<Object> getItemById(long userId, long itemId) {
-        return get("/" + itemId, userId);
+    public Mono<ResponseEntity<Object>> getItemAvailability(long userId, long itemId, LocalDateTime from, LocalDateTime to) {
+        Map<String, Object> parameters = Map.of(
+                "from", from.format(DATE_TIME_FORMATTER),
+                "to", to.format(DATE_TIME_FORMATTER));
+        return cachedGet(ITEMS, "/" + itemId + "/availability?from={from}&to={to}", userId, parameters, tag(ITEMS, itemId));
     }
 
-    public ResponseEntity<Object> getOwnerItems(long userId, int from, int size) {
+    public Mono<ResponseEntity<Object>> getOwnerItems(long userId, int from, int size) {
         Map<String, Object> parameters = Map.of(
                 "from", from,
                 "size", size);
         return get("?from={from}&size={size}", userId, parameters);
     }
 
-    public ResponseEntity<Object> findItem(long userId, String text, int from, int size) {
+    public Mono<ResponseEntity<Object>> findItem(long userId, String text, int from, int size) {
         Map<String, Object> parameters = Map.of(
                 "text", text,
                 "from", from,
@@ -54,11 +88,20 @@ public class ItemClient extends BaseClient {
         return get("/search?text={text}&from={from}&size={size}", userId, parameters);
     }
 
-    public ResponseEntity<Object> addComment(long userId, long itemId, CreatingCommentDto creatingCommentDto) {
-        return post("/" + itemId + "/comment", userId, creatingCommentDto);
+    public Mono<ResponseEntity<Object>> addComment(long userId, long itemId, CreatingCommentDto creatingCommentDto) {
+        return evicting(post("/" + itemId + "/comment", userId, creatingCommentDto), tag(ITEMS, itemId));
     }
 
-    public void delete(long userId, long itemId) {
-        delete("/" + itemId, userId);
+    public Mono<ResponseEntity<Object>> delete(long userId, long itemId) {
+        return evicting(delete("/" + itemId, userId), tag(ITEMS, itemId), REQUESTS);
+    }
+
+    private static List<String> requestTags(JsonNode item) {
+        JsonNode requestId = item.path("requestId");
+        if (!requestId.canConvertToLong()) {
+            return List.of();
+        }
+
+        return List.of(tag(REQUESTS, LISTS), tag(REQUESTS, requestId.asLong()));
     }
 }
@@ -4,44 +4,61 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.GatewayResponseCache;
 import ru.practicum.shareit.request.dto.CreatingItemRequestDto;
 
 import java.util.Map;
 
+import static ru.practicum.shareit.client.GatewayResponseCache.LISTS;
+import static ru.practicum.shareit.client.GatewayResponseCache.REQUESTS;
+import static ru.practicum.shareit.client.GatewayResponseCache.tag;
+
 @Service
 public class RequestClient extends BaseClient {
     private static final String API_PREFIX = "/requests";
 
     @Autowired
-    public RequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public RequestClient(@Value("${shareit-server.url}") String serverUrl,
+                         @Value("${shareit-server.reactive}") boolean reactive,
+                         RestTemplateBuilder builder,
+                         ClientHttpRequestFactory requestFactory,
+                         WebClient.Builder webClientBuilder,
+                         GatewayResponseCache responseCache) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .requestFactory(() -> requestFactory)
+                        .build(),
+                webClientBuilder
+                        .baseUrl(serverUrl + API_PREFIX)
+                        .build(),
+                reactive,
+                responseCache
         );
     }
 
-    public ResponseEntity<Object> addItemRequest(long userId, CreatingItemRequestDto creatingItemRequestDto) {
-        return post("", userId, creatingItemRequestDto);
+    public Mono<ResponseEntity<Object>> addItemRequest(long userId, CreatingItemRequestDto creatingItemRequestDto) {
+        return evicting(post("", userId, creatingItemRequestDto), tag(REQUESTS, LISTS));
     }
 
-    public ResponseEntity<Object> getItemRequests(long userId) {
-        return get("", userId);
+    public Mono<ResponseEntity<Object>> getItemRequests(long userId) {
+        return cachedGet(REQUESTS, "", userId, tag(REQUESTS, LISTS));
     }
 
-    public ResponseEntity<Object> getAllItemRequests(long userId, int from, int size) {
+    public Mono<ResponseEntity<Object>> getAllItemRequests(long userId, int from, int size) {
         Map<String, Object> parameters = Map.of(
                 "from", from,
                 "size", size);
-        return get("/all?from={from}&size={size}", userId, parameters);
+        return cachedGet(REQUESTS, "/all?from={from}&size={size}", userId, parameters, tag(REQUESTS, LISTS));
     }
 
-    public ResponseEntity<Object> getItemRequest(long userId, long requestId) {
-        return get("/" + requestId, userId);
+    public Mono<ResponseEntity<Object>> getItemRequest(long userId, long requestId) {
+        return cachedGet(REQUESTS, "/" + requestId, userId, tag(REQUESTS, requestId));
     }
 }
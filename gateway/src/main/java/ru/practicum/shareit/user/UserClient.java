@@ -5,43 +5,62 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.GatewayResponseCache;
 import ru.practicum.shareit.user.dto.CreatingUserDto;
 
+import static ru.practicum.shareit.client.GatewayResponseCache.ITEMS;
+import static ru.practicum.shareit.client.GatewayResponseCache.LISTS;
+import static ru.practicum.shareit.client.GatewayResponseCache.REQUESTS;
+import static ru.practicum.shareit.client.GatewayResponseCache.USERS;
+import static ru.practicum.shareit.client.GatewayResponseCache.tag;
+
 @Service
 public class UserClient extends BaseClient {
     private static final String API_PREFIX = "/users";
 
     @Autowired
-    public UserClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public UserClient(@Value("${shareit-server.url}") String serverUrl,
+                      @Value("${shareit-server.reactive}") boolean reactive,
+                      RestTemplateBuilder builder,
+                      ClientHttpRequestFactory requestFactory,
+                      WebClient.Builder webClientBuilder,
+                      GatewayResponseCache responseCache) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .requestFactory(() -> requestFactory)
+                        .build(),
+                webClientBuilder
+                        .baseUrl(serverUrl + API_PREFIX)
+                        .build(),
+                reactive,
+                responseCache
         );
     }
 
-    public ResponseEntity<Object> getAllUsers() {
-        return get("");
+    public Mono<ResponseEntity<Object>> getAllUsers() {
+        return cachedGet(USERS, "", null, tag(USERS, LISTS));
     }
 
-    public ResponseEntity<Object> getUserById(long userId) {
-        return get("/" + userId);
+    public Mono<ResponseEntity<Object>> getUserById(long userId) {
+        return cachedGet(USERS, "/" + userId, null, tag(USERS, userId));
     }
 
-    public ResponseEntity<Object> addUser(CreatingUserDto creatingUserDto) {
-        return post("", creatingUserDto);
+    public Mono<ResponseEntity<Object>> addUser(CreatingUserDto creatingUserDto) {
+        return evicting(post("", creatingUserDto), tag(USERS, LISTS));
     }
 
-    public ResponseEntity<Object> updateUser(long userId, CreatingUserDto creatingUserDto) {
-        return patch("/" + userId, creatingUserDto);
+    public Mono<ResponseEntity<Object>> updateUser(long userId, CreatingUserDto creatingUserDto) {
+        return evicting(patch("/" + userId, creatingUserDto), tag(USERS, LISTS), tag(USERS, userId));
     }
 
-    public ResponseEntity<Object> deleteUser(long userId) {
-        return delete("/" + userId);
+    public Mono<ResponseEntity<Object>> deleteUser(long userId) {
+        return evicting(delete("/" + userId), USERS, ITEMS, REQUESTS);
     }
 }
@@ -0,0 +1,38 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import javax.validation.ValidationException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+import static ru.practicum.shareit.util.Constant.DATE_TIME_FORMATTER;
+
+@Data
+@Builder
+public class BookingCursor {
+    private LocalDateTime start;
+    private Long id;
+
+    public static BookingCursor parse(String cursor) {
+        String[] parts = cursor.split(",");
+
+        if (parts.length != 2) {
+            throw new ValidationException(String.format("Некорректный курсор: %s", cursor));
+        }
+
+        try {
+            return BookingCursor.builder()
+                    .start(LocalDateTime.parse(parts[0].trim(), DATE_TIME_FORMATTER))
+                    .id(Long.parseLong(parts[1].trim()))
+                    .build();
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new ValidationException(String.format("Некорректный курсор: %s", cursor));
+        }
+    }
+
+    public String format() {
+        return String.format("%s,%d", start.format(DATE_TIME_FORMATTER), id);
+    }
+}
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class BookingFilter {
+    private Long itemId;
+    private LocalDateTime start;
+    private LocalDateTime end;
+    private BookingCursor after;
+}
@@ -7,4 +7,5 @@ public final class Constant {
     public static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
     public static final String DEFAULT_START_PAGE = "0";
     public static final String DEFAULT_SIZE_PAGE = "16";
+    public static final int MAX_BATCH_SIZE = 500;
 }
@@ -18,6 +18,12 @@ public class Validator {
         }
     }
 
+    public void validateRange(LocalDateTime start, LocalDateTime end) {
+        if (start != null && end != null && !start.isBefore(end)) {
+            throw new ValidationException("Начало интервала должно быть раньше окончания");
+        }
+    }
+
     public void validateStatusType(String state) {
         try {
             StateType.valueOf(state.toUpperCase());
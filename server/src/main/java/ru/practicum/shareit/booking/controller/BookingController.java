@@ -2,14 +2,23 @@ package ru.practicum.shareit.booking.controller;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.booking.dal.BookingService;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingFilter;
 import ru.practicum.shareit.booking.dto.CreatingBookingDto;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
+import static org.springframework.format.annotation.DateTimeFormat.ISO.DATE_TIME;
 import static ru.practicum.shareit.util.Constant.HEADER_USER_ID;
 
 
@@ -25,6 +34,12 @@ public class BookingController {
         return service.addBooking(userId, creatingBookingDto);
     }
 
+    @PostMapping("/batch")
+    public List<BookingBatchResultDto> addBookings(@RequestHeader(HEADER_USER_ID) long userId,
+                                                   @RequestBody List<CreatingBookingDto> creatingBookingDtos) {
+        return service.addBookings(userId, creatingBookingDtos);
+    }
+
     @PatchMapping("/{bookingId}")
     public BookingDto approveBooking(@RequestHeader(HEADER_USER_ID) long userId,
                                      @PathVariable long bookingId,
@@ -33,28 +48,59 @@ public class BookingController {
     }
 
     @GetMapping("/{bookingId}")
-    public BookingDto getBooking(@RequestHeader(HEADER_USER_ID) long userId,
-                                 @PathVariable long bookingId) {
-        return service.getBooking(userId, bookingId);
+    public ResponseEntity<BookingDto> getBooking(@RequestHeader(HEADER_USER_ID) long userId,
+                                                 @PathVariable long bookingId,
+                                                 WebRequest request) {
+        String eTag = service.getBookingETag(userId, bookingId);
+
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .body(service.getBooking(userId, bookingId));
     }
 
     @GetMapping
     public List<BookingDto> getBookings(@RequestHeader(HEADER_USER_ID) long userId,
                                         @RequestParam String state,
                                         @RequestParam Integer from,
-                                        @RequestParam Integer size) {
-        PageRequest page = PageRequest.of(from / size, size, Sort.by("dateStart").descending());
+                                        @RequestParam Integer size,
+                                        @RequestParam(required = false) Long itemId,
+                                        @RequestParam(required = false) @DateTimeFormat(iso = DATE_TIME) LocalDateTime start,
+                                        @RequestParam(required = false) @DateTimeFormat(iso = DATE_TIME) LocalDateTime end,
+                                        @RequestParam(required = false) String after) {
+        BookingFilter filter = toFilter(itemId, start, end, after);
 
-        return service.getUserBookings(userId, state, page);
+        return service.getUserBookings(userId, state, filter, PageRequest.of(from / size, size));
     }
 
     @GetMapping("/owner")
     public List<BookingDto> getOwnerBookings(@RequestHeader(HEADER_USER_ID) long userId,
                                              @RequestParam String state,
                                              @RequestParam Integer from,
-                                             @RequestParam Integer size) {
-        PageRequest page = PageRequest.of(from / size, size, Sort.by("dateStart").descending());
+                                             @RequestParam Integer size,
+                                             @RequestParam(required = false) Long itemId,
+                                             @RequestParam(required = false) @DateTimeFormat(iso = DATE_TIME) LocalDateTime start,
+                                             @RequestParam(required = false) @DateTimeFormat(iso = DATE_TIME) LocalDateTime end,
+                                             @RequestParam(required = false) String after) {
+        BookingFilter filter = toFilter(itemId, start, end, after);
+
+        return service.getOwnerBookings(userId, state, filter, PageRequest.of(from / size, size));
+    }
+
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamBookings(@RequestHeader(HEADER_USER_ID) long userId) {
+        return service.streamBookings(userId);
+    }
 
-        return service.getOwnerBookings(userId, state, page);
+    private BookingFilter toFilter(Long itemId, LocalDateTime start, LocalDateTime end, String after) {
+        return BookingFilter.builder()
+                .itemId(itemId)
+                .start(start)
+                .end(end)
+                .after(after == null ? null : BookingCursor.parse(after))
+                .build();
     }
 }
@@ -1,7 +1,10 @@
 package ru.practicum.shareit.booking.dal;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingFilter;
 import ru.practicum.shareit.booking.dto.CreatingBookingDto;
 
 import java.util.List;
@@ -9,11 +12,17 @@ import java.util.List;
 public interface BookingService {
     BookingDto addBooking(long userId, CreatingBookingDto creatingBookingDto);
 
+    List<BookingBatchResultDto> addBookings(long userId, List<CreatingBookingDto> creatingBookingDtos);
+
     BookingDto approveBooking(long userId, long bookingId, boolean approved);
 
     BookingDto getBooking(long userId, long bookingId);
 
-    List<BookingDto> getUserBookings(long userId, String state, Pageable pageable);
+    String getBookingETag(long userId, long bookingId);
+
+    List<BookingDto> getUserBookings(long userId, String state, BookingFilter filter, Pageable pageable);
+
+    List<BookingDto> getOwnerBookings(long userId, String state, BookingFilter filter, Pageable pageable);
 
-    List<BookingDto> getOwnerBookings(long userId, String state, Pageable pageable);
+    SseEmitter streamBookings(long userId);
 }
@@ -1,28 +1,42 @@
 package ru.practicum.shareit.booking.dal;
 
 import lombok.AllArgsConstructor;
-import org.springframework.data.domain.Page;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.booking.StateType;
 import ru.practicum.shareit.booking.StatusType;
+import ru.practicum.shareit.booking.dao.BookingCriteria;
+import ru.practicum.shareit.booking.dao.BookingEventRepository;
 import ru.practicum.shareit.booking.dao.BookingRepository;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingFilter;
+import ru.practicum.shareit.booking.dto.BookingStateView;
 import ru.practicum.shareit.booking.dto.CreatingBookingDto;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingEventType;
+import ru.practicum.shareit.booking.stream.BookingStreamHub;
 import ru.practicum.shareit.exception.AccessDeniedException;
 import ru.practicum.shareit.exception.EntityNotFoundException;
 import ru.practicum.shareit.exception.NotAvailableBookingException;
+import ru.practicum.shareit.item.dal.ItemAvailabilityIndex;
 import ru.practicum.shareit.item.dao.ItemRepository;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.dal.UserService;
 import ru.practicum.shareit.user.dao.UserRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.util.Validator;
+import ru.practicum.shareit.util.marker.OnCreate;
 
+import javax.validation.ConstraintViolation;
+import javax.validation.ValidationException;
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -33,6 +47,11 @@ public class BookingServiceImpl implements BookingService {
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
     private final BookingMapper bookingMapper;
+    private final UserService userService;
+    private final ItemAvailabilityIndex availabilityIndex;
+    private final BookingEventRepository eventRepository;
+    private final BookingStreamHub streamHub;
+    private final javax.validation.Validator validator;
 
     @Override
     @Transactional
@@ -43,131 +62,229 @@ public class BookingServiceImpl implements BookingService {
 
         Item itemInRepository = getItemOrThrowException(creatingBookingDto.getItemId());
 
-        if (itemInRepository.getOwner().equals(userInRepository)) {
-            throw new EntityNotFoundException(String.format("Пользователь %s является владельцем вещи %s и не может ее забронировать",
-                    userInRepository,
-                    itemInRepository));
-        }
-
-        if (!itemInRepository.getAvailable()) {
-            throw new NotAvailableBookingException(String.format("Вещь %s не доступна для бронирования", itemInRepository));
-        }
+        throwExceptionIfNotBookable(userId, itemInRepository);
+        throwExceptionIfOverlapsApproved(itemInRepository.getId(), creatingBookingDto.getStart(), creatingBookingDto.getEnd());
 
         Booking booking = bookingMapper.toBooking(creatingBookingDto);
         booking.setItem(itemInRepository);
+        booking.setOwnerId(itemInRepository.getOwner().getId());
         booking.setBooker(userInRepository);
 
-        return bookingMapper.toDto(bookingRepository.save(booking));
+        Booking savedBooking = bookingRepository.save(booking);
+        eventRepository.save(bookingMapper.toEvent(savedBooking, BookingEventType.CREATED));
+
+        BookingDto bookingDto = bookingMapper.toDto(savedBooking);
+        streamHub.publish(itemInRepository.getOwner().getId(), userId, BookingEventType.CREATED, bookingDto);
+
+        return bookingDto;
     }
 
     @Override
     @Transactional
-    public BookingDto approveBooking(long userId, long bookingId, boolean approved) {
+    public List<BookingBatchResultDto> addBookings(long userId, List<CreatingBookingDto> creatingBookingDtos) {
         User userInRepository = getUserOrThrowException(userId);
+
+        Map<Integer, String> errors = new HashMap<>();
+        List<CreatingBookingDto> valid = new ArrayList<>(creatingBookingDtos.size());
+
+        for (int i = 0; i < creatingBookingDtos.size(); i++) {
+            try {
+                validateBatchBooking(creatingBookingDtos.get(i));
+                valid.add(creatingBookingDtos.get(i));
+            } catch (RuntimeException e) {
+                errors.put(i, errorMessage(e));
+            }
+        }
+
+        Map<Long, Item> items = Collections.emptyMap();
+        Map<Long, List<Booking>> approved = Collections.emptyMap();
+
+        if (!valid.isEmpty()) {
+            Set<Long> itemIds = valid.stream()
+                    .map(CreatingBookingDto::getItemId)
+                    .collect(Collectors.toSet());
+            LocalDateTime start = valid.stream()
+                    .map(CreatingBookingDto::getStart)
+                    .min(Comparator.naturalOrder())
+                    .orElseThrow();
+            LocalDateTime end = valid.stream()
+                    .map(CreatingBookingDto::getEnd)
+                    .max(Comparator.naturalOrder())
+                    .orElseThrow();
+
+            items = itemRepository.findAllById(itemIds).stream()
+                    .collect(Collectors.toMap(Item::getId, Function.identity()));
+            approved = bookingRepository.findByItemIdsAndStatusBetween(itemIds, StatusType.APPROVED, start, end).stream()
+                    .collect(Collectors.groupingBy(booking -> booking.getItem().getId()));
+        }
+
+        List<BookingBatchResultDto> results = new ArrayList<>(creatingBookingDtos.size());
+        List<Booking> bookings = new ArrayList<>(creatingBookingDtos.size());
+
+        for (int i = 0; i < creatingBookingDtos.size(); i++) {
+            String error = errors.get(i);
+
+            if (error == null) {
+                try {
+                    Booking booking = toBatchBooking(userId, creatingBookingDtos.get(i), items, approved);
+                    booking.setBooker(userInRepository);
+                    bookings.add(booking);
+                } catch (RuntimeException e) {
+                    error = errorMessage(e);
+                }
+            }
+
+            results.add(BookingBatchResultDto.builder()
+                    .index(i)
+                    .error(error)
+                    .build());
+        }
+
+        List<Booking> savedBookings = bookingRepository.saveAll(bookings);
+        eventRepository.saveAll(savedBookings.stream()
+                .map(booking -> bookingMapper.toEvent(booking, BookingEventType.CREATED))
+                .collect(Collectors.toList()));
+
+        Iterator<Booking> saved = savedBookings.iterator();
+        for (BookingBatchResultDto result : results) {
+            if (result.getError() == null) {
+                Booking booking = saved.next();
+                result.setBooking(bookingMapper.toDto(booking));
+                streamHub.publish(booking.getItem().getOwner().getId(), userId, BookingEventType.CREATED, result.getBooking());
+            }
+        }
+
+        return results;
+    }
+
+    @Override
+    @Transactional
+    public BookingDto approveBooking(long userId, long bookingId, boolean approved) {
         Booking bookingInRepository = getBookingOrThrowException(bookingId);
 
         if (bookingInRepository.getItem().getOwner().getId() != userId) {
-            throw new AccessDeniedException(String.format("Пользователь %s не является владельцем вещи для подтверждения бронирования", userInRepository));
+            isUserExists(userId);
+
+            throw new AccessDeniedException(String.format("Пользователь с ID = %d не является владельцем вещи для подтверждения бронирования", userId));
         }
 
         StatusType status = approved ? StatusType.APPROVED : StatusType.REJECTED;
+        boolean wasApproved = bookingInRepository.getStatus() == StatusType.APPROVED;
 
-        if (approved && bookingInRepository.getStatus() == StatusType.APPROVED) {
+        if (approved && wasApproved) {
             throw new NotAvailableBookingException("Бронирование уже принято");
         }
 
+        if (approved || wasApproved) {
+            itemRepository.incrementVersion(bookingInRepository.getItem().getId());
+        }
+
+        if (approved) {
+            throwExceptionIfOverlapsApproved(bookingInRepository.getItem().getId(),
+                    bookingInRepository.getDateStart(),
+                    bookingInRepository.getDateEnd());
+        }
+
         bookingInRepository.setStatus(status);
 
-        return bookingMapper.toDto(bookingInRepository);
+        try {
+            bookingRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            throw new NotAvailableBookingException(String.format("Вещь с ID = %d уже забронирована на этот период",
+                    bookingInRepository.getItem().getId()));
+        }
+
+        BookingEventType eventType = approved ? BookingEventType.APPROVED : BookingEventType.REJECTED;
+        eventRepository.save(bookingMapper.toEvent(bookingInRepository, eventType));
+
+        if (approved) {
+            availabilityIndex.addApproved(bookingInRepository.getItem().getId(),
+                    bookingInRepository.getDateStart(),
+                    bookingInRepository.getDateEnd());
+        } else if (wasApproved) {
+            availabilityIndex.remove(bookingInRepository.getItem().getId());
+        }
+
+        BookingDto bookingDto = bookingMapper.toDto(bookingInRepository);
+        streamHub.publish(userId, bookingInRepository.getBooker().getId(), eventType, bookingDto);
+
+        return bookingDto;
     }
 
     @Override
     public BookingDto getBooking(long userId, long bookingId) {
-        User userInRepository = getUserOrThrowException(userId);
         Booking bookingInRepository = getBookingOrThrowException(bookingId);
 
-        if (userInRepository != bookingInRepository.getItem().getOwner() && userInRepository != bookingInRepository.getBooker()) {
-            throw new AccessDeniedException(String.format("Пользователь %s не является владельцем вещи или автором бронирования", userInRepository));
+        if (bookingInRepository.getItem().getOwner().getId() != userId && bookingInRepository.getBooker().getId() != userId) {
+            isUserExists(userId);
+
+            throw new AccessDeniedException(String.format("Пользователь с ID = %d не является владельцем вещи или автором бронирования", userId));
         }
 
         return bookingMapper.toDto(bookingInRepository);
     }
 
     @Override
-    public List<BookingDto> getUserBookings(long userId, String state, Pageable pageable) {
-        Validator.validateStatusType(state);
+    public String getBookingETag(long userId, long bookingId) {
+        BookingStateView state = bookingRepository.findStateById(bookingId)
+                .orElseThrow(() -> new EntityNotFoundException(String.format("Бронирование с ID = %d не найдено", bookingId)));
 
-        User user = getUserOrThrowException(userId);
-
-        StateType stateType = StateType.valueOf(state.toUpperCase());
-        LocalDateTime now = LocalDateTime.now();
-        Page<Booking> result = Page.empty();
-
-        switch (stateType) {
-            case PAST:
-                result = bookingRepository.findAllByBookerAndPast(user, now, pageable);
-                break;
-            case FUTURE:
-                result = bookingRepository.findAllByBookerAndFuture(user, now, pageable);
-                break;
-            case CURRENT:
-                result = bookingRepository.findAllByBookerAndCurrent(user, now, pageable);
-                break;
-            case WAITING:
-                result = bookingRepository.findAllByBookerAndStatus(user, StatusType.WAITING, pageable);
-                break;
-            case REJECTED:
-                result = bookingRepository.findAllByBookerAndStatus(user, StatusType.REJECTED, pageable);
-                break;
-            case ALL:
-                result = bookingRepository.findAllByBooker(user, pageable);
-                break;
-        }
-
-        return result.stream()
-                .map(bookingMapper::toDto)
-                .collect(Collectors.toList());
+        if (state.getOwnerId() != userId && state.getBookerId() != userId) {
+            isUserExists(userId);
+
+            throw new AccessDeniedException(String.format("Пользователь с ID = %d не является владельцем вещи или автором бронирования", userId));
+        }
+
+        return String.format("\"%d-%d-%d\"", state.getVersion(), state.getItemVersion(), state.getBookerVersion());
     }
 
     @Override
-    public List<BookingDto> getOwnerBookings(long userId, String state, Pageable pageable) {
+    public List<BookingDto> getUserBookings(long userId, String state, BookingFilter filter, Pageable pageable) {
+        return getBookings(BookingCriteria.Role.BOOKER, userId, state, filter, pageable);
+    }
+
+    @Override
+    public List<BookingDto> getOwnerBookings(long userId, String state, BookingFilter filter, Pageable pageable) {
+        return getBookings(BookingCriteria.Role.OWNER, userId, state, filter, pageable);
+    }
+
+    @Override
+    public SseEmitter streamBookings(long userId) {
+        isUserExists(userId);
+
+        return streamHub.subscribe(userId);
+    }
+
+    private List<BookingDto> getBookings(BookingCriteria.Role role, long userId, String state, BookingFilter filter, Pageable pageable) {
         Validator.validateStatusType(state);
+        Validator.validateRange(filter.getStart(), filter.getEnd());
+
+        BookingCriteria criteria = BookingCriteria.builder()
+                .role(role)
+                .userId(userId)
+                .state(StateType.valueOf(state.toUpperCase()))
+                .now(LocalDateTime.now())
+                .filter(filter)
+                .build();
+        List<Booking> bookings = bookingRepository.findBookings(criteria, pageable);
+
+        if (bookings.isEmpty()) {
+            isUserExists(userId);
+        }
 
-        User user = getUserOrThrowException(userId);
-
-        StateType stateType = StateType.valueOf(state.toUpperCase());
-        LocalDateTime now = LocalDateTime.now();
-        Page<Booking> result = Page.empty();
-
-        switch (stateType) {
-            case PAST:
-                result = bookingRepository.findAllByOwnerAndPast(user, now, pageable);
-                break;
-            case FUTURE:
-                result = bookingRepository.findAllByOwnerAndFuture(user, now, pageable);
-                break;
-            case CURRENT:
-                result = bookingRepository.findAllByOwnerAndCurrent(user, now, pageable);
-                break;
-            case WAITING:
-                result = bookingRepository.findAllByOwnerAndStatus(user, StatusType.WAITING, pageable);
-                break;
-            case REJECTED:
-                result = bookingRepository.findAllByOwnerAndStatus(user, StatusType.REJECTED, pageable);
-                break;
-            case ALL:
-                result = bookingRepository.findAllByOwner(user, pageable);
-                break;
-        }
-
-        return result.stream()
+        return bookings.stream()
                 .map(bookingMapper::toDto)
                 .collect(Collectors.toList());
     }
 
     private User getUserOrThrowException(long id) {
-        return userRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException(String.format("Пользователь с ID = %d не найден", id)));
+        userService.getUserById(id);
+
+        return userRepository.getReferenceById(id);
+    }
+
+    private void isUserExists(long id) {
+        userService.getUserById(id);
     }
 
     private Item getItemOrThrowException(long id) {
@@ -175,6 +292,79 @@ public class BookingServiceImpl implements BookingService {
                 .orElseThrow(() -> new EntityNotFoundException(String.format("Вещь с ID = %d не найдена", id)));
     }
 
+    private void validateBatchBooking(CreatingBookingDto creatingBookingDto) {
+        if (creatingBookingDto == null) {
+            throw new ValidationException("Бронирование не указано");
+        }
+
+        Set<ConstraintViolation<CreatingBookingDto>> violations = validator.validate(creatingBookingDto, OnCreate.class);
+
+        if (!violations.isEmpty()) {
+            throw new ValidationException(violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+        }
+
+        Validator.validateBooking(creatingBookingDto);
+    }
+
+    private static String errorMessage(RuntimeException e) {
+        return Objects.requireNonNullElse(e.getMessage(), e.getClass().getSimpleName());
+    }
+
+    private Booking toBatchBooking(long userId,
+                                   CreatingBookingDto creatingBookingDto,
+                                   Map<Long, Item> items,
+                                   Map<Long, List<Booking>> approved) {
+        Item item = items.get(creatingBookingDto.getItemId());
+
+        if (item == null) {
+            throw new EntityNotFoundException(String.format("Вещь с ID = %d не найдена", creatingBookingDto.getItemId()));
+        }
+
+        throwExceptionIfNotBookable(userId, item);
+
+        approved.getOrDefault(item.getId(), Collections.emptyList()).stream()
+                .filter(booking -> booking.getDateStart().isBefore(creatingBookingDto.getEnd())
+                        && booking.getDateEnd().isAfter(creatingBookingDto.getStart()))
+                .findFirst()
+                .ifPresent(booking -> {
+                    throw overlapException(item.getId(), booking);
+                });
+
+        Booking booking = bookingMapper.toBooking(creatingBookingDto);
+        booking.setItem(item);
+        booking.setOwnerId(item.getOwner().getId());
+
+        return booking;
+    }
+
+    private void throwExceptionIfNotBookable(long userId, Item item) {
+        if (item.getOwner().getId() == userId) {
+            throw new EntityNotFoundException(String.format("Пользователь с ID = %d является владельцем вещи %s и не может ее забронировать",
+                    userId,
+                    item));
+        }
+
+        if (!item.getAvailable()) {
+            throw new NotAvailableBookingException(String.format("Вещь %s не доступна для бронирования", item));
+        }
+    }
+
+    private void throwExceptionIfOverlapsApproved(long itemId, LocalDateTime start, LocalDateTime end) {
+        bookingRepository.findFirstByItemIdAndStatusAndDateStartBeforeAndDateEndAfterOrderByDateStart(itemId,
+                        StatusType.APPROVED, end, start)
+                .ifPresent(booking -> {
+                    throw overlapException(itemId, booking);
+                });
+    }
+
+    private static NotAvailableBookingException overlapException(long itemId, Booking booking) {
+        return new NotAvailableBookingException(String.format("Вещь с ID = %d уже забронирована с %s по %s",
+                itemId, booking.getDateStart(), booking.getDateEnd()));
+    }
+
     private Booking getBookingOrThrowException(long id) {
         return bookingRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException(String.format("Бронирование с ID = %d не найдено", id)));
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.booking.dao;
+
+import lombok.Builder;
+import lombok.Data;
+import ru.practicum.shareit.booking.StateType;
+import ru.practicum.shareit.booking.dto.BookingFilter;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class BookingCriteria {
+    private Role role;
+    private Long userId;
+    private StateType state;
+    private LocalDateTime now;
+    private BookingFilter filter;
+
+    public enum Role {
+        BOOKER,
+        OWNER
+    }
+}
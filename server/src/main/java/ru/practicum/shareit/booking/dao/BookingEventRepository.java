@@ -0,0 +1,11 @@
+package ru.practicum.shareit.booking.dao;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import ru.practicum.shareit.booking.model.BookingEvent;
+
+import java.util.List;
+
+public interface BookingEventRepository extends JpaRepository<BookingEvent, Long> {
+    List<BookingEvent> findAllByOrderByIdAsc(Pageable pageable);
+}
@@ -1,134 +1,70 @@
 package ru.practicum.shareit.booking.dao;
 
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
-import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.StatusType;
-import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.booking.dto.BookingIntervalView;
+import ru.practicum.shareit.booking.dto.BookingStateView;
+import ru.practicum.shareit.booking.dto.ItemBookingView;
+import ru.practicum.shareit.booking.model.Booking;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
-public interface BookingRepository extends JpaRepository<Booking, Long> {
-    @Query(value = "SELECT b" +
-            " FROM Booking AS b" +
-            " JOIN FETCH b.item" +
-            " JOIN FETCH b.booker" +
-            " WHERE b.booker = :user" +
-            "     AND b.dateEnd < :time",
-            countQuery = "SELECT COUNT(b)" +
-                    " FROM Booking AS b" +
-                    " WHERE b.booker = :user" +
-                    "     AND b.dateEnd < :time")
-    Page<Booking> findAllByBookerAndPast(@Param("user") User booker, @Param("time") LocalDateTime now, Pageable page);
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingRepositoryCustom {
+    @Query(value = "SELECT l.id AS id, l.item_id AS itemId, l.booker_id AS bookerId, 'LAST' AS type" +
+            " FROM (SELECT b.id, b.item_id, b.booker_id," +
+            "     ROW_NUMBER() OVER (PARTITION BY b.item_id ORDER BY b.start_date DESC) AS rn" +
+            "     FROM bookings AS b" +
+            "     WHERE b.item_id IN (:ids)" +
+            "         AND b.status = 'APPROVED'" +
+            "         AND b.start_date < :time) AS l" +
+            " WHERE l.rn = 1" +
+            " UNION ALL" +
+            " SELECT n.id AS id, n.item_id AS itemId, n.booker_id AS bookerId, 'NEXT' AS type" +
+            " FROM (SELECT b.id, b.item_id, b.booker_id," +
+            "     ROW_NUMBER() OVER (PARTITION BY b.item_id ORDER BY b.start_date ASC) AS rn" +
+            "     FROM bookings AS b" +
+            "     WHERE b.item_id IN (:ids)" +
+            "         AND b.status = 'APPROVED'" +
+            "         AND b.start_date > :time) AS n" +
+            " WHERE n.rn = 1",
+            nativeQuery = true)
+    List<ItemBookingView> findLastAndNextByItemIds(@Param("ids") Collection<Long> itemIds, @Param("time") LocalDateTime now);
 
-    @Query(value = "SELECT b" +
+    @Query("SELECT COUNT(b) > 0" +
             " FROM Booking AS b" +
-            " JOIN FETCH b.item" +
-            " JOIN FETCH b.booker" +
-            " WHERE b.booker = :user" +
-            "     AND b.dateStart > :time",
-            countQuery = "SELECT COUNT(b)" +
-                    " FROM Booking AS b" +
-                    " WHERE b.booker = :user" +
-                    "     AND b.dateStart > :time")
-    Page<Booking> findAllByBookerAndFuture(@Param("user") User booker, @Param("time") LocalDateTime now, Pageable page);
+            " WHERE b.item.id = :itemId" +
+            "     AND b.booker.id = :userId" +
+            "     AND b.dateEnd < :time")
+    boolean existsFinishedByItemAndBooker(@Param("itemId") Long itemId, @Param("userId") Long userId, @Param("time") LocalDateTime now);
 
-    @Query(value = "SELECT b" +
-            " FROM Booking AS b" +
-            " JOIN FETCH b.item" +
-            " JOIN FETCH b.booker" +
-            " WHERE b.booker = :user" +
-            "     AND b.dateStart < :time" +
-            "     AND b.dateEnd > :time",
-            countQuery = "SELECT COUNT(b)" +
-                    " FROM Booking AS b" +
-                    " WHERE b.booker = :user" +
-                    "     AND b.dateStart < :time" +
-                    "     AND b.dateEnd > :time")
-    Page<Booking> findAllByBookerAndCurrent(@Param("user") User booker, @Param("time") LocalDateTime now, Pageable page);
+    Optional<Booking> findFirstByItemIdAndStatusAndDateStartBeforeAndDateEndAfterOrderByDateStart(Long itemId,
+                                                                                                   StatusType status,
+                                                                                                   LocalDateTime end,
+                                                                                                   LocalDateTime start);
 
-    @Query(value = "SELECT b" +
-            " FROM Booking AS b" +
-            " JOIN FETCH b.item" +
-            " JOIN FETCH b.booker" +
-            " WHERE b.booker = :user" +
-            "     AND b.status = :status",
-            countQuery = "SELECT COUNT(b)" +
-                    " FROM Booking AS b" +
-                    " WHERE b.booker = :user" +
-                    "     AND b.status = :status")
-    Page<Booking> findAllByBookerAndStatus(@Param("user") User booker, @Param("status") StatusType statusType, Pageable page);
-
-    @Query(value = "SELECT b" +
-            " FROM Booking AS b" +
-            " JOIN FETCH b.item" +
-            " JOIN FETCH b.booker" +
-            " WHERE b.booker = :user",
-            countQuery = "SELECT COUNT(b)" +
-                    " FROM Booking AS b" +
-                    " WHERE b.booker = :user")
-    Page<Booking> findAllByBooker(@Param("user") User booker, Pageable page);
-
-    @Query(value = "SELECT b" +
-            " FROM Booking AS b" +
-            " JOIN FETCH b.item AS i" +
-            " JOIN FETCH b.booker" +
-            " WHERE i.owner = :user" +
-            "     AND b.dateEnd < :time",
-            countQuery = "SELECT COUNT(b)" +
-                    " FROM Booking AS b" +
-                    " WHERE b.item.owner = :user" +
-                    "     AND b.dateEnd < :time")
-    Page<Booking> findAllByOwnerAndPast(@Param("user") User owner, @Param("time") LocalDateTime now, Pageable page);
-
-    @Query(value = "SELECT b " +
-            " FROM Booking AS b" +
-            " JOIN FETCH b.item AS i" +
-            " JOIN FETCH b.booker" +
-            " WHERE i.owner = :user" +
-            "     AND b.dateStart > :time",
-            countQuery = "SELECT COUNT(b)" +
-                    " FROM Booking AS b" +
-                    " WHERE b.item.owner = :user" +
-                    "     AND b.dateStart > :time")
-    Page<Booking> findAllByOwnerAndFuture(@Param("user") User owner, @Param("time") LocalDateTime now, Pageable page);
-
-    @Query(value = "SELECT b" +
-            " FROM Booking AS b" +
-            " JOIN FETCH b.item AS i" +
-            " JOIN FETCH b.booker" +
-            " WHERE i.owner = :user" +
-            "     AND b.dateStart < :time" +
-            "     AND b.dateEnd > :time",
-            countQuery = "SELECT COUNT(b)" +
-                    " FROM Booking AS b" +
-                    " WHERE b.item.owner = :user" +
-                    "     AND b.dateStart < :time" +
-                    "     AND b.dateEnd > :time")
-    Page<Booking> findAllByOwnerAndCurrent(@Param("user") User owner, @Param("time") LocalDateTime now, Pageable page);
+    List<BookingIntervalView> findAllByItemIdAndStatusOrderByDateStart(Long itemId, StatusType status);
 
-    @Query(value = "SELECT b" +
+    @Query("SELECT b" +
             " FROM Booking AS b" +
-            " JOIN FETCH b.item AS i" +
-            " JOIN FETCH b.booker" +
-            " WHERE i.owner = :user" +
-            "     AND b.status = :status",
-            countQuery = "SELECT COUNT(b)" +
-                    " FROM Booking AS b" +
-                    " WHERE b.item.owner = :user" +
-                    "     AND b.status = :status")
-    Page<Booking> findAllByOwnerAndStatus(@Param("user") User owner, @Param("status") StatusType statusType, Pageable page);
+            " WHERE b.item.id IN :itemIds" +
+            "     AND b.status = :status" +
+            "     AND b.dateStart < :end" +
+            "     AND b.dateEnd > :start")
+    List<Booking> findByItemIdsAndStatusBetween(@Param("itemIds") Collection<Long> itemIds,
+                                                @Param("status") StatusType status,
+                                                @Param("start") LocalDateTime start,
+                                                @Param("end") LocalDateTime end);
 
-    @Query(value = "SELECT b" +
+    @Query("SELECT u.id AS bookerId, i.owner.id AS ownerId, b.version AS version," +
+            "     i.version AS itemVersion, u.version AS bookerVersion" +
             " FROM Booking AS b" +
-            " JOIN FETCH b.item AS i" +
-            " JOIN FETCH b.booker" +
-            " WHERE i.owner = :user",
-            countQuery = "SELECT COUNT(b)" +
-                    " FROM Booking AS b" +
-                    " WHERE b.item.owner = :user")
-    Page<Booking> findAllByOwner(@Param("user") User owner, Pageable page);
+            " JOIN b.item AS i" +
+            " JOIN b.booker AS u" +
+            " WHERE b.id = :id")
+    Optional<BookingStateView> findStateById(@Param("id") Long id);
 }
@@ -0,0 +1,10 @@
+package ru.practicum.shareit.booking.dao;
+
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.model.Booking;
+
+import java.util.List;
+
+public interface BookingRepositoryCustom {
+    List<Booking> findBookings(BookingCriteria criteria, Pageable page);
+}
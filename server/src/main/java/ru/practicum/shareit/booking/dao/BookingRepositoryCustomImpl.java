@@ -0,0 +1,101 @@
+package ru.practicum.shareit.booking.dao;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.StatusType;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingFilter;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.model.Item;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class BookingRepositoryCustomImpl implements BookingRepositoryCustom {
+    private final EntityManager entityManager;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Booking> findBookings(BookingCriteria criteria, Pageable page) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Booking> query = cb.createQuery(Booking.class);
+        Root<Booking> booking = query.from(Booking.class);
+        Join<Booking, Item> item = (Join<Booking, Item>) booking.<Booking, Item>fetch("item");
+        booking.fetch("booker");
+
+        List<Predicate> predicates = new ArrayList<>();
+
+        if (criteria.getRole() == BookingCriteria.Role.OWNER) {
+            predicates.add(cb.equal(booking.get("ownerId"), criteria.getUserId()));
+        } else {
+            predicates.add(cb.equal(booking.get("booker").get("id"), criteria.getUserId()));
+        }
+
+        addStatePredicates(cb, booking, criteria, predicates);
+
+        BookingFilter filter = criteria.getFilter();
+        BookingCursor after = filter.getAfter();
+
+        if (filter.getItemId() != null) {
+            predicates.add(cb.equal(item.get("id"), filter.getItemId()));
+        }
+
+        if (filter.getStart() != null) {
+            predicates.add(cb.greaterThan(booking.get("dateEnd"), filter.getStart()));
+        }
+
+        if (filter.getEnd() != null) {
+            predicates.add(cb.lessThan(booking.get("dateStart"), filter.getEnd()));
+        }
+
+        if (after != null) {
+            predicates.add(cb.or(
+                    cb.lessThan(booking.get("dateStart"), after.getStart()),
+                    cb.and(cb.equal(booking.get("dateStart"), after.getStart()),
+                            cb.lessThan(booking.get("id"), after.getId()))));
+        }
+
+        query.select(booking)
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(cb.desc(booking.get("dateStart")), cb.desc(booking.get("id")));
+
+        TypedQuery<Booking> typedQuery = entityManager.createQuery(query)
+                .setMaxResults(page.getPageSize());
+
+        if (after == null) {
+            typedQuery.setFirstResult((int) page.getOffset());
+        }
+
+        return typedQuery.getResultList();
+    }
+
+    private void addStatePredicates(CriteriaBuilder cb, Root<Booking> booking, BookingCriteria criteria, List<Predicate> predicates) {
+        LocalDateTime now = criteria.getNow();
+
+        switch (criteria.getState()) {
+            case PAST:
+                predicates.add(cb.lessThan(booking.get("dateEnd"), now));
+                break;
+            case FUTURE:
+                predicates.add(cb.greaterThan(booking.get("dateStart"), now));
+                break;
+            case CURRENT:
+                predicates.add(cb.lessThan(booking.get("dateStart"), now));
+                predicates.add(cb.greaterThan(booking.get("dateEnd"), now));
+                break;
+            case WAITING:
+                predicates.add(cb.equal(booking.get("status"), StatusType.WAITING));
+                break;
+            case REJECTED:
+                predicates.add(cb.equal(booking.get("status"), StatusType.REJECTED));
+                break;
+            case ALL:
+                break;
+        }
+    }
+}
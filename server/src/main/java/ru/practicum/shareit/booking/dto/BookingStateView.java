@@ -0,0 +1,13 @@
+package ru.practicum.shareit.booking.dto;
+
+public interface BookingStateView {
+    Long getBookerId();
+
+    Long getOwnerId();
+
+    Long getVersion();
+
+    Long getItemVersion();
+
+    Long getBookerVersion();
+}
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.booking.dto;
+
+public interface ItemBookingView {
+    Long getId();
+
+    Long getItemId();
+
+    Long getBookerId();
+
+    String getType();
+
+    default boolean isLast() {
+        return "LAST".equals(getType());
+    }
+}
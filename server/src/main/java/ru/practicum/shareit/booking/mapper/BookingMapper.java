@@ -7,7 +7,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoShort;
 import ru.practicum.shareit.booking.dto.CreatingBookingDto;
+import ru.practicum.shareit.booking.dto.ItemBookingView;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingEvent;
+import ru.practicum.shareit.booking.model.BookingEventType;
 import ru.practicum.shareit.item.dto.item.ItemDtoShort;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
@@ -31,11 +34,20 @@ public abstract class BookingMapper {
     @Mapping(target = "bookerId", source = "booking.booker.id")
     public abstract BookingDtoShort toBookingDtoShort(Booking booking);
 
+    public abstract BookingDtoShort toBookingDtoShort(ItemBookingView view);
+
     @Mapping(target = "dateStart", source = "bookingDto.start")
     @Mapping(target = "dateEnd", source = "bookingDto.end")
     @Mapping(target = "status", constant = "WAITING")
     public abstract Booking toBooking(CreatingBookingDto bookingDto);
 
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "bookingId", source = "booking.id")
+    @Mapping(target = "itemId", source = "booking.item.id")
+    @Mapping(target = "bookerId", source = "booking.booker.id")
+    @Mapping(target = "created", expression = "java(java.time.LocalDateTime.now())")
+    public abstract BookingEvent toEvent(Booking booking, BookingEventType type);
+
     @Named("itemToItemDtoShort")
     ItemDtoShort itemToItemDtoShort(Item item) {
         return itemMapper.toDtoShort(item);
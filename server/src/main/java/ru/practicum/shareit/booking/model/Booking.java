@@ -17,7 +17,8 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class Booking {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bookings_seq")
+    @SequenceGenerator(name = "bookings_seq", sequenceName = "bookings_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "start_date", nullable = false)
@@ -30,6 +31,9 @@ public class Booking {
     @ToString.Exclude
     private Item item;
 
+    @Column(name = "owner_id", nullable = false)
+    private Long ownerId;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @ToString.Exclude
     private User booker;
@@ -37,6 +41,9 @@ public class Booking {
     @Enumerated(EnumType.STRING)
     private StatusType status;
 
+    @Version
+    private Long version;
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -0,0 +1,51 @@
+package ru.practicum.shareit.booking.model;
+
+import lombok.*;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "booking_events", schema = "public")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "booking_events_seq")
+    @SequenceGenerator(name = "booking_events_seq", sequenceName = "booking_events_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "booking_id", nullable = false)
+    private Long bookingId;
+
+    @Column(name = "item_id", nullable = false)
+    private Long itemId;
+
+    @Column(name = "booker_id", nullable = false)
+    private Long bookerId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private BookingEventType type;
+
+    @Column(nullable = false)
+    private LocalDateTime created;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof BookingEvent)) return false;
+
+        BookingEvent event = (BookingEvent) o;
+
+        return id.equals(event.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return id.hashCode();
+    }
+}
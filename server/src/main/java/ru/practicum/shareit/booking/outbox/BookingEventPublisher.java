@@ -0,0 +1,69 @@
+package ru.practicum.shareit.booking.outbox;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dao.BookingEventRepository;
+import ru.practicum.shareit.booking.model.BookingEvent;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(value = "shareit.outbox.publisher.enabled", havingValue = "true", matchIfMissing = true)
+public class BookingEventPublisher {
+    private final BookingEventRepository eventRepository;
+    private final BookingEventSink sink;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public BookingEventPublisher(BookingEventRepository eventRepository,
+                                 BookingEventSink sink,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${shareit.outbox.batch-size}") int batchSize) {
+        this.eventRepository = eventRepository;
+        this.sink = sink;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.outbox.publish-delay}")
+    public void publishPending() {
+        try {
+            int published;
+            do {
+                published = transactionTemplate.execute(status -> publishBatch());
+            } while (published == batchSize);
+        } catch (UncheckedIOException e) {
+            log.warn("Не удалось выгрузить события бронирования, повтор при следующем запуске", e);
+        }
+    }
+
+    private int publishBatch() {
+        List<BookingEvent> events = eventRepository.findAllByOrderByIdAsc(PageRequest.of(0, batchSize));
+
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            sink.publish(events);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        eventRepository.deleteAllByIdInBatch(events.stream()
+                .map(BookingEvent::getId)
+                .collect(Collectors.toList()));
+
+        return events.size();
+    }
+}
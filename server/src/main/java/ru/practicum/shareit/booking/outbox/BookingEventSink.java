@@ -0,0 +1,10 @@
+package ru.practicum.shareit.booking.outbox;
+
+import ru.practicum.shareit.booking.model.BookingEvent;
+
+import java.io.IOException;
+import java.util.List;
+
+public interface BookingEventSink {
+    void publish(List<BookingEvent> events) throws IOException;
+}
@@ -0,0 +1,82 @@
+package ru.practicum.shareit.booking.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import ru.practicum.shareit.booking.model.BookingEvent;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Slf4j
+public class SegmentFileBookingEventSink implements BookingEventSink {
+    private static final String SEGMENT_PREFIX = "booking-events-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final ObjectMapper objectMapper;
+    private final Path directory;
+    private final long maxSegmentBytes;
+
+    private Path segment;
+
+    public SegmentFileBookingEventSink(ObjectMapper objectMapper, Path directory, long maxSegmentBytes) {
+        this.objectMapper = objectMapper;
+        this.directory = directory;
+        this.maxSegmentBytes = maxSegmentBytes;
+    }
+
+    @Override
+    public synchronized void publish(List<BookingEvent> events) throws IOException {
+        if (events.isEmpty()) {
+            return;
+        }
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(events.size() * 128);
+        for (BookingEvent event : events) {
+            objectMapper.writeValue(buffer, event);
+            buffer.write('\n');
+        }
+
+        Path target = currentSegment(events.get(0).getId());
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            channel.force(false);
+        }
+    }
+
+    private Path currentSegment(long firstEventId) throws IOException {
+        if (segment == null) {
+            Files.createDirectories(directory);
+            segment = findLastSegment();
+        }
+
+        if (segment == null || Files.size(segment) >= maxSegmentBytes) {
+            segment = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstEventId, SEGMENT_SUFFIX));
+            log.info("Новый сегмент журнала событий бронирования: {}", segment);
+        }
+
+        return segment;
+    }
+
+    private Path findLastSegment() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .filter(file -> {
+                        String name = file.getFileName().toString();
+                        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                    })
+                    .max(Path::compareTo)
+                    .orElse(null);
+        }
+    }
+}
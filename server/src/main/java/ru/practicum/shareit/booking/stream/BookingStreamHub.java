@@ -0,0 +1,221 @@
+package ru.practicum.shareit.booking.stream;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.model.BookingEventType;
+import ru.practicum.shareit.util.Transactions;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+@Component
+public class BookingStreamHub {
+    private static final String HEARTBEAT = "heartbeat";
+
+    private final Map<Long, Set<Subscription>> subscriptions = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final Executor dispatcher;
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final long timeout;
+    private final long sendTimeout;
+
+    public BookingStreamHub(@Qualifier("bookingStreamExecutor") Executor dispatcher,
+                            @Value("${shareit.stream.buffer-size}") int bufferSize,
+                            @Value("${shareit.stream.max-subscribers}") int maxSubscribers,
+                            @Value("${shareit.stream.timeout}") Duration timeout,
+                            @Value("${shareit.stream.send-timeout}") Duration sendTimeout) {
+        this.dispatcher = dispatcher;
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+        this.timeout = timeout.toMillis();
+        this.sendTimeout = sendTimeout.toNanos();
+    }
+
+    public SseEmitter subscribe(long userId) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Превышено количество подписок на бронирования");
+        }
+
+        Subscription subscription = new Subscription(userId, new SseEmitter(timeout), new ArrayBlockingQueue<>(bufferSize));
+        subscriptions.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet())
+                .add(subscription);
+
+        subscription.emitter.onCompletion(() -> unsubscribe(subscription));
+        subscription.emitter.onTimeout(subscription.emitter::complete);
+        subscription.emitter.onError(e -> unsubscribe(subscription));
+
+        return subscription.emitter;
+    }
+
+    public void publish(long ownerId, long bookerId, BookingEventType type, BookingDto booking) {
+        Transactions.afterCommit(() -> {
+            deliver(ownerId, type, booking);
+
+            if (bookerId != ownerId) {
+                deliver(bookerId, type, booking);
+            }
+        });
+    }
+
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.stream.heartbeat}")
+    public void heartbeat() {
+        long now = System.nanoTime();
+
+        subscriptions.values().forEach(userSubscriptions -> userSubscriptions.forEach(subscription -> {
+            long sendStarted = subscription.sendStarted.get();
+
+            if (sendStarted != 0 && now - sendStarted > sendTimeout) {
+                log.warn("Отправка события подписчику с ID = {} не завершилась вовремя, подписка закрыта", subscription.userId);
+
+                close(subscription);
+            } else if (subscription.events.offer(SseEmitter.event().comment(HEARTBEAT))) {
+                schedule(subscription);
+            }
+        }));
+    }
+
+    private void deliver(long userId, BookingEventType type, BookingDto booking) {
+        Set<Subscription> userSubscriptions = subscriptions.get(userId);
+
+        if (userSubscriptions == null) {
+            return;
+        }
+
+        for (Subscription subscription : userSubscriptions) {
+            if (subscription.events.offer(SseEmitter.event().name(type.name()).data(booking))) {
+                schedule(subscription);
+            } else {
+                log.warn("Подписчик с ID = {} не успевает получать события бронирований, подписка закрыта", userId);
+
+                close(subscription);
+            }
+        }
+    }
+
+    private void close(Subscription subscription) {
+        unsubscribe(subscription);
+        schedule(subscription);
+    }
+
+    private void schedule(Subscription subscription) {
+        if (subscription.draining.compareAndSet(false, true)) {
+            try {
+                dispatcher.execute(() -> drain(subscription));
+            } catch (RejectedExecutionException e) {
+                subscription.draining.set(false);
+            }
+        }
+    }
+
+    private void drain(Subscription subscription) {
+        try {
+            SseEmitter.SseEventBuilder event;
+
+            while (!subscription.closed.get() && (event = subscription.events.poll()) != null) {
+                send(subscription, event);
+            }
+        } catch (IOException | IllegalStateException e) {
+            unsubscribe(subscription);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            unsubscribe(subscription);
+        } finally {
+            subscription.sendStarted.set(0);
+            subscription.draining.set(false);
+        }
+
+        if (subscription.closed.get()) {
+            if (subscription.completed.compareAndSet(false, true)) {
+                subscription.emitter.complete();
+            }
+        } else if (!subscription.events.isEmpty()) {
+            schedule(subscription);
+        }
+    }
+
+    private void send(Subscription subscription, SseEmitter.SseEventBuilder event) throws IOException, InterruptedException {
+        Send send = new Send(subscription.emitter, event);
+
+        subscription.sendStarted.set(System.nanoTime());
+        ForkJoinPool.managedBlock(send);
+        subscription.sendStarted.set(0);
+
+        if (send.failure != null) {
+            throw send.failure;
+        }
+    }
+
+    private void unsubscribe(Subscription subscription) {
+        if (subscription.closed.compareAndSet(false, true)) {
+            subscriptions.computeIfPresent(subscription.userId, (id, userSubscriptions) -> {
+                userSubscriptions.remove(subscription);
+                return userSubscriptions.isEmpty() ? null : userSubscriptions;
+            });
+            subscription.events.clear();
+            subscriberCount.decrementAndGet();
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class Subscription {
+        private final long userId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> events;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private final AtomicBoolean completed = new AtomicBoolean();
+        private final AtomicLong sendStarted = new AtomicLong();
+    }
+
+    @RequiredArgsConstructor
+    private static class Send implements ForkJoinPool.ManagedBlocker {
+        private final SseEmitter emitter;
+        private final SseEmitter.SseEventBuilder event;
+        private boolean done;
+        private IOException failure;
+
+        @Override
+        public boolean block() {
+            try {
+                emitter.send(event);
+            } catch (IOException e) {
+                failure = e;
+            }
+            done = true;
+
+            return true;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            return done;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    public static final String USERS = "users";
+
+    @Bean
+    public CacheManager cacheManager(@Value("${shareit.cache.users.spec}") String usersSpec) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(USERS);
+        cacheManager.setCacheSpecification(usersSpec);
+        cacheManager.setAllowNullValues(false);
+
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
@@ -0,0 +1,25 @@
+package ru.practicum.shareit.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.util.unit.DataSize;
+import ru.practicum.shareit.booking.outbox.BookingEventSink;
+import ru.practicum.shareit.booking.outbox.SegmentFileBookingEventSink;
+
+import java.nio.file.Path;
+
+@Configuration
+@EnableScheduling
+public class OutboxConfig {
+    @Bean
+    @ConditionalOnMissingBean(BookingEventSink.class)
+    public BookingEventSink bookingEventSink(ObjectMapper objectMapper,
+                                             @Value("${shareit.outbox.directory}") Path directory,
+                                             @Value("${shareit.outbox.segment-size}") DataSize segmentSize) {
+        return new SegmentFileBookingEventSink(objectMapper, directory, segmentSize.toBytes());
+    }
+}
@@ -0,0 +1,13 @@
+package ru.practicum.shareit.config;
+
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class SqlTraceConfig {
+    @Bean
+    public FilterRegistrationBean<SqlTraceFilter> sqlTraceFilter(SqlTraceEndpoint sqlTraceEndpoint) {
+        return new FilterRegistrationBean<>(new SqlTraceFilter(sqlTraceEndpoint));
+    }
+}
@@ -0,0 +1,70 @@
+package ru.practicum.shareit.config;
+
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+@Component
+@Endpoint(id = "sqltrace")
+public class SqlTraceEndpoint {
+    private volatile Target target;
+
+    @ReadOperation
+    public Map<String, Object> state() {
+        Target current = target;
+        Map<String, Object> state = new LinkedHashMap<>();
+
+        state.put("enabled", current != null);
+        state.put("userId", current == null ? null : current.userId);
+        state.put("sampleRate", current == null ? null : current.sampleRate);
+
+        return state;
+    }
+
+    @WriteOperation
+    public Map<String, Object> enable(long userId, @Nullable Double sampleRate) {
+        double rate = sampleRate == null ? 1.0 : sampleRate;
+
+        if (rate <= 0 || rate > 1) {
+            throw new InvalidEndpointRequestException(String.format("Доля запросов должна быть в интервале (0, 1], получено %s", rate),
+                    "sampleRate out of range");
+        }
+
+        target = new Target(userId, rate);
+
+        return state();
+    }
+
+    @DeleteOperation
+    public Map<String, Object> disable() {
+        target = null;
+
+        return state();
+    }
+
+    boolean shouldTrace(@Nullable String userId) {
+        Target current = target;
+
+        return current != null
+                && String.valueOf(current.userId).equals(userId)
+                && (current.sampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < current.sampleRate);
+    }
+
+    private static final class Target {
+        private final long userId;
+        private final double sampleRate;
+
+        private Target(long userId, double sampleRate) {
+            this.userId = userId;
+            this.sampleRate = sampleRate;
+        }
+    }
+}
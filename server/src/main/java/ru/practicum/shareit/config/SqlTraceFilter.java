@@ -0,0 +1,35 @@
+package ru.practicum.shareit.config;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.MDC;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+import static ru.practicum.shareit.util.Constant.HEADER_USER_ID;
+
+@RequiredArgsConstructor
+public class SqlTraceFilter extends OncePerRequestFilter {
+    private final SqlTraceEndpoint sqlTraceEndpoint;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        if (!sqlTraceEndpoint.shouldTrace(request.getHeader(HEADER_USER_ID))) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        MDC.put(SqlTraceTurboFilter.MDC_KEY, "true");
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            MDC.remove(SqlTraceTurboFilter.MDC_KEY);
+        }
+    }
+}
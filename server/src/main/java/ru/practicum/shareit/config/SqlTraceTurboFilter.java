@@ -0,0 +1,30 @@
+package ru.practicum.shareit.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.MDC;
+import org.slf4j.Marker;
+
+public class SqlTraceTurboFilter extends TurboFilter {
+    public static final String MDC_KEY = "sqlTrace";
+
+    private static final String SQL_LOGGER = "org.hibernate.SQL";
+    private static final String BINDER_LOGGER_PREFIX = "org.hibernate.type.descriptor.sql.";
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (MDC.get(MDC_KEY) == null) {
+            return FilterReply.NEUTRAL;
+        }
+
+        String name = logger.getName();
+
+        if (name.equals(SQL_LOGGER) || name.startsWith(BINDER_LOGGER_PREFIX)) {
+            return FilterReply.ACCEPT;
+        }
+
+        return FilterReply.NEUTRAL;
+    }
+}
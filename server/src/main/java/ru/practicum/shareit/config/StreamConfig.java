@@ -0,0 +1,26 @@
+package ru.practicum.shareit.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class StreamConfig {
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService bookingStreamExecutor(@Value("${shareit.stream.dispatcher-threads}") int threads,
+                                                 @Value("${shareit.stream.dispatcher-max-threads}") int maxThreads) {
+        ForkJoinPool.ForkJoinWorkerThreadFactory threadFactory = pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("booking-stream-" + thread.getPoolIndex());
+            return thread;
+        };
+
+        return new ForkJoinPool(threads, threadFactory, null, true,
+                0, maxThreads, 1, pool -> true, 60, TimeUnit.SECONDS);
+    }
+}
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.exception.controller;
 
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -28,6 +29,12 @@ public class ErrorHandler {
         return Map.of("error", e.getMessage());
     }
 
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public Map<String, String> concurrentUpdate(final RuntimeException e) {
+        return Map.of("error", "Данные были изменены другим запросом, повторите попытку");
+    }
+
     @ExceptionHandler({NotAvailableBookingException.class,
             ValidationException.class,
             MethodArgumentNotValidException.class})
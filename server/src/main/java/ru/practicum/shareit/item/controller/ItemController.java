@@ -3,15 +3,25 @@ package ru.practicum.shareit.item.controller;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 import ru.practicum.shareit.item.dal.ItemService;
+import ru.practicum.shareit.item.dto.availability.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.comment.CommentDto;
 import ru.practicum.shareit.item.dto.comment.CreatingCommentDto;
 import ru.practicum.shareit.item.dto.item.CreatingItemDto;
 import ru.practicum.shareit.item.dto.item.ItemDto;
+import ru.practicum.shareit.item.dto.item.ItemViewDto;
 
+import javax.servlet.http.HttpServletRequest;
+import java.time.LocalDateTime;
 import java.util.List;
 
+import static org.springframework.format.annotation.DateTimeFormat.ISO.DATE_TIME;
 import static ru.practicum.shareit.util.Constant.HEADER_USER_ID;
 
 @RestController
@@ -34,9 +44,31 @@ public class ItemController {
     }
 
     @GetMapping("/{itemId}")
-    public ItemDto getItem(@RequestHeader(HEADER_USER_ID) long userId,
-                           @PathVariable long itemId) {
-        return service.getItemById(userId, itemId);
+    public ResponseEntity<ItemDto> getItem(@RequestHeader(HEADER_USER_ID) long userId,
+                                           @PathVariable long itemId,
+                                           HttpServletRequest request) {
+        String eTag = service.getItemETag(userId, itemId);
+
+        if (eTag != null && new ServletWebRequest(request).checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(eTag)
+                    .build();
+        }
+
+        ItemViewDto itemView = service.getItemById(userId, itemId);
+
+        return ResponseEntity.ok()
+                .eTag(itemView.getETag())
+                .cacheControl(itemView.isOwner() ? CacheControl.noCache().cachePrivate() : CacheControl.empty())
+                .body(itemView.getItem());
+    }
+
+    @GetMapping("/{itemId}/availability")
+    public ItemAvailabilityDto getItemAvailability(@RequestHeader(HEADER_USER_ID) long userId,
+                                                   @PathVariable long itemId,
+                                                   @RequestParam @DateTimeFormat(iso = DATE_TIME) LocalDateTime from,
+                                                   @RequestParam @DateTimeFormat(iso = DATE_TIME) LocalDateTime to) {
+        return service.getItemAvailability(userId, itemId, from, to);
     }
 
     @GetMapping
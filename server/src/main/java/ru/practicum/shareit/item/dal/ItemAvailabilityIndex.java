@@ -0,0 +1,96 @@
+package ru.practicum.shareit.item.dal;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.StatusType;
+import ru.practicum.shareit.booking.dao.BookingRepository;
+import ru.practicum.shareit.booking.dto.BookingIntervalView;
+import ru.practicum.shareit.item.dto.availability.AvailabilitySlotDto;
+import ru.practicum.shareit.util.Transactions;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+public class ItemAvailabilityIndex {
+    private static final long MICROS_PER_SECOND = 1_000_000L;
+
+    private final BookingRepository bookingRepository;
+    private final Cache<Long, LongIntervalSet> intervals;
+
+    public ItemAvailabilityIndex(BookingRepository bookingRepository,
+                                 @Value("${shareit.availability.cache.spec}") String spec) {
+        this.bookingRepository = bookingRepository;
+        this.intervals = Caffeine.from(spec).build();
+    }
+
+    public List<AvailabilitySlotDto> getSlots(long itemId, LocalDateTime from, LocalDateTime to) {
+        long fromMicros = toMicros(from);
+        long toMicros = toMicros(to);
+        long[] busy = intervals.get(itemId, this::load).slice(fromMicros, toMicros);
+
+        List<AvailabilitySlotDto> slots = new ArrayList<>(busy.length + 1);
+        long cursor = fromMicros;
+
+        for (int i = 0; i < busy.length; i += 2) {
+            if (cursor < busy[i]) {
+                slots.add(toSlot(cursor, busy[i], true));
+            }
+            slots.add(toSlot(busy[i], busy[i + 1], false));
+            cursor = busy[i + 1];
+        }
+        if (cursor < toMicros) {
+            slots.add(toSlot(cursor, toMicros, true));
+        }
+
+        return slots;
+    }
+
+    public void addApproved(long itemId, LocalDateTime start, LocalDateTime end) {
+        long startMicros = toMicros(start);
+        long endMicros = toMicros(end);
+
+        Transactions.afterCommit(() -> intervals.asMap()
+                .computeIfPresent(itemId, (id, set) -> set.with(startMicros, endMicros)));
+    }
+
+    public void remove(long itemId) {
+        Transactions.afterCommit(() -> intervals.invalidate(itemId));
+    }
+
+    private LongIntervalSet load(long itemId) {
+        List<BookingIntervalView> approved = bookingRepository.findAllByItemIdAndStatusOrderByDateStart(itemId,
+                StatusType.APPROVED);
+
+        long[] starts = new long[approved.size()];
+        long[] ends = new long[approved.size()];
+
+        for (int i = 0; i < approved.size(); i++) {
+            starts[i] = toMicros(approved.get(i).getDateStart());
+            ends[i] = toMicros(approved.get(i).getDateEnd());
+        }
+
+        return LongIntervalSet.ofSorted(starts, ends);
+    }
+
+    private static AvailabilitySlotDto toSlot(long start, long end, boolean available) {
+        return AvailabilitySlotDto.builder()
+                .start(fromMicros(start))
+                .end(fromMicros(end))
+                .available(available)
+                .build();
+    }
+
+    private static long toMicros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * MICROS_PER_SECOND + time.getNano() / 1000;
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, MICROS_PER_SECOND),
+                (int) Math.floorMod(micros, MICROS_PER_SECOND) * 1000, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,273 @@
+package ru.practicum.shareit.item.dal;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.util.Transactions;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemSearchIndex {
+    private static final Pattern DELIMITER = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+    private static final int REBUILD_CHUNK_SIZE = 1000;
+    private static final int GRAM_LENGTH = 3;
+    private static final String TOKEN_SEPARATOR = " ";
+
+    private final ItemRepository itemRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Index index = new Index();
+    private List<Consumer<Index>> pending;
+
+    @Value("${shareit.search.index.enabled:false}")
+    private boolean enabled;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            pending = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Index rebuilt = null;
+        try {
+            rebuilt = load();
+        } finally {
+            lock.writeLock().lock();
+            try {
+                if (rebuilt != null) {
+                    for (Consumer<Index> update : pending) {
+                        update.accept(rebuilt);
+                    }
+                    index = rebuilt;
+                }
+                pending = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        log.info("Индекс поиска вещей построен, вещей: {}, n-грамм: {}", rebuilt.documents.size(), rebuilt.postings.size());
+    }
+
+    public void add(Item item) {
+        if (!enabled || !Boolean.TRUE.equals(item.getAvailable())) {
+            return;
+        }
+
+        long id = item.getId();
+        String document = document(item);
+
+        Transactions.afterCommit(() -> update(target -> target.add(id, document)));
+    }
+
+    public void remove(Item item) {
+        if (!enabled) {
+            return;
+        }
+
+        long id = item.getId();
+
+        Transactions.afterCommit(() -> update(target -> target.remove(id)));
+    }
+
+    public long[] search(String text) {
+        Set<String> queryTokens = tokenize(text);
+
+        if (queryTokens.isEmpty()) {
+            return LongPostingList.empty();
+        }
+
+        lock.readLock().lock();
+        try {
+            List<LongPostingList> lists = new ArrayList<>();
+
+            for (String gram : queryGrams(queryTokens)) {
+                LongPostingList list = index.postings.get(gram);
+
+                if (list == null) {
+                    return LongPostingList.empty();
+                }
+                lists.add(list);
+            }
+
+            lists.sort(Comparator.comparingInt(LongPostingList::size));
+
+            long[] candidates = lists.get(0).toArray();
+            for (int i = 1; i < lists.size() && candidates.length > 0; i++) {
+                candidates = lists.get(i).intersect(candidates);
+            }
+
+            return verify(candidates, queryTokens);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Index load() {
+        Index loaded = new Index();
+
+        long lastId = 0;
+        List<Item> chunk = itemRepository.findAvailableAfter(lastId, PageRequest.of(0, REBUILD_CHUNK_SIZE));
+        while (!chunk.isEmpty()) {
+            for (Item item : chunk) {
+                loaded.add(item.getId(), document(item));
+                lastId = item.getId();
+            }
+            chunk = itemRepository.findAvailableAfter(lastId, PageRequest.of(0, REBUILD_CHUNK_SIZE));
+        }
+
+        return loaded;
+    }
+
+    private void update(Consumer<Index> update) {
+        lock.writeLock().lock();
+        try {
+            update.accept(index);
+
+            if (pending != null) {
+                pending.add(update);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private long[] verify(long[] candidates, Set<String> queryTokens) {
+        List<String> unverified = new ArrayList<>();
+
+        for (String queryToken : queryTokens) {
+            if (queryToken.length() > GRAM_LENGTH) {
+                unverified.add(queryToken);
+            }
+        }
+
+        if (unverified.isEmpty()) {
+            return candidates;
+        }
+
+        long[] result = new long[candidates.length];
+        int size = 0;
+
+        for (long id : candidates) {
+            if (containsAll(index.documents.get(id), unverified)) {
+                result[size++] = id;
+            }
+        }
+
+        return Arrays.copyOf(result, size);
+    }
+
+    private static boolean containsAll(String document, List<String> queryTokens) {
+        for (String queryToken : queryTokens) {
+            if (!document.contains(queryToken)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static String document(Item item) {
+        return String.join(TOKEN_SEPARATOR, tokenize(item.getName(), item.getDescription()));
+    }
+
+    private static Set<String> indexGrams(String document) {
+        Set<String> grams = new HashSet<>();
+
+        for (String token : document.split(TOKEN_SEPARATOR)) {
+            for (int length = 1; length <= GRAM_LENGTH; length++) {
+                for (int i = 0; i + length <= token.length(); i++) {
+                    grams.add(token.substring(i, i + length));
+                }
+            }
+        }
+
+        return grams;
+    }
+
+    private static Set<String> queryGrams(Set<String> queryTokens) {
+        Set<String> grams = new HashSet<>();
+
+        for (String queryToken : queryTokens) {
+            if (queryToken.length() <= GRAM_LENGTH) {
+                grams.add(queryToken);
+                continue;
+            }
+            for (int i = 0; i + GRAM_LENGTH <= queryToken.length(); i++) {
+                grams.add(queryToken.substring(i, i + GRAM_LENGTH));
+            }
+        }
+
+        return grams;
+    }
+
+    private static Set<String> tokenize(String... texts) {
+        Set<String> tokens = new HashSet<>();
+
+        for (String text : texts) {
+            if (text == null) {
+                continue;
+            }
+            for (String token : DELIMITER.split(text.toLowerCase(Locale.ROOT))) {
+                if (!token.isEmpty()) {
+                    tokens.add(token);
+                }
+            }
+        }
+
+        return tokens;
+    }
+
+    private static class Index {
+        private final Map<String, LongPostingList> postings = new HashMap<>();
+        private final Map<Long, String> documents = new HashMap<>();
+
+        private void add(long id, String document) {
+            remove(id);
+            documents.put(id, document);
+
+            for (String gram : indexGrams(document)) {
+                postings.computeIfAbsent(gram, g -> new LongPostingList()).add(id);
+            }
+        }
+
+        private void remove(long id) {
+            String document = documents.remove(id);
+
+            if (document == null) {
+                return;
+            }
+
+            for (String gram : indexGrams(document)) {
+                LongPostingList list = postings.get(gram);
+
+                if (list != null && list.remove(id) && list.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+}
@@ -1,11 +1,14 @@
 package ru.practicum.shareit.item.dal;
 
 import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.dto.availability.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.comment.CommentDto;
 import ru.practicum.shareit.item.dto.comment.CreatingCommentDto;
 import ru.practicum.shareit.item.dto.item.CreatingItemDto;
 import ru.practicum.shareit.item.dto.item.ItemDto;
+import ru.practicum.shareit.item.dto.item.ItemViewDto;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemService {
@@ -15,7 +18,12 @@ public interface ItemService {
 
     List<ItemDto> search(long userId, String search, Pageable pageable);
 
-    ItemDto getItemById(long userId, long itemId);
+    ItemViewDto getItemById(long userId, long itemId);
+
+    String getItemETag(long userId, long itemId);
+
+
+    ItemAvailabilityDto getItemAvailability(long userId, long itemId, LocalDateTime from, LocalDateTime to);
 
     ItemDto updateItem(long userId, long itemId, CreatingItemDto creatingItemDto);
 
@@ -1,31 +1,43 @@
 package ru.practicum.shareit.item.dal;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
+import lombok.Value;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dao.BookingRepository;
+import ru.practicum.shareit.booking.dto.BookingDtoShort;
+import ru.practicum.shareit.booking.dto.ItemBookingView;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.exception.AccessDeniedException;
 import ru.practicum.shareit.exception.EntityNotFoundException;
 import ru.practicum.shareit.exception.NotAvailableBookingException;
 import ru.practicum.shareit.item.dao.CommentRepository;
 import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.dto.availability.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.comment.CommentDto;
 import ru.practicum.shareit.item.dto.comment.CreatingCommentDto;
 import ru.practicum.shareit.item.dto.item.CreatingItemDto;
 import ru.practicum.shareit.item.dto.item.ItemDto;
+import ru.practicum.shareit.item.dto.item.ItemStateView;
+import ru.practicum.shareit.item.dto.item.ItemViewDto;
 import ru.practicum.shareit.item.mapper.CommentMapper;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.dao.ItemRequestRepository;
 import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.dal.UserService;
 import ru.practicum.shareit.user.dao.UserRepository;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.util.SingleFlight;
+import ru.practicum.shareit.util.Validator;
 
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -36,8 +48,14 @@ public class ItemServiceImpl implements ItemService {
     private final UserRepository userRepository;
     private final CommentRepository commentRepository;
     private final ItemRequestRepository itemRequestRepository;
+    private final BookingRepository bookingRepository;
     private final ItemMapper itemMapper;
     private final CommentMapper commentMapper;
+    private final BookingMapper bookingMapper;
+    private final ItemSearchIndex searchIndex;
+    private final ItemAvailabilityIndex availabilityIndex;
+    private final UserService userService;
+    private final SingleFlight<Map.Entry<Long, Long>, ItemSnapshot> itemLoads = new SingleFlight<>();
 
     @Override
     @Transactional
@@ -55,23 +73,23 @@ public class ItemServiceImpl implements ItemService {
             item.setItemRequest(itemRequest);
         }
 
-        return itemMapper.toDto(itemRepository.save(item));
+        Item savedItem = itemRepository.save(item);
+        searchIndex.add(savedItem);
+
+        return itemMapper.toDto(savedItem);
     }
 
     @Override
     public List<ItemDto> getAllItemsByUserId(long userId, Pageable pageable) {
-        isUserExists(userId);
+        List<Item> items = itemRepository.findAllByOwnerId(userId, pageable);
 
-        Page<Item> items = itemRepository.findAllByOwnerId(userId, pageable);
-        boolean itemExist = items.getContent().stream().findAny().isPresent();
+        if (items.isEmpty()) {
+            isUserExists(userId);
 
-        if (!items.isEmpty() && itemExist && items.getContent().stream().findAny().get().getOwner().getId() == userId) {
-            return items.stream()
-                    .map(itemMapper::toDtoWithBooking)
-                    .collect(Collectors.toList());
+            return Collections.emptyList();
         }
 
-        return Collections.emptyList();
+        return toDtoWithBooking(items);
     }
 
     @Override
@@ -82,30 +100,83 @@ public class ItemServiceImpl implements ItemService {
             return Collections.emptyList();
         }
 
+        if (searchIndex.isEnabled()) {
+            return searchInIndex(text, pageable);
+        }
+
         return itemRepository.search(text, pageable).stream()
                 .map(itemMapper::toDto)
                 .collect(Collectors.toList());
     }
 
     @Override
-    public ItemDto getItemById(long userId, long itemId) {
-        getUserOrThrowException(userId);
-        Item itemInRepository = getItemOrThrowException(itemId);
+    public ItemViewDto getItemById(long userId, long itemId) {
+        ItemStateView state = getItemStateOrThrowException(itemId);
 
-        if (itemInRepository.getOwner().getId() == userId) {
-            return itemMapper.toDtoWithBooking(itemInRepository);
+        if (state.getOwnerId() != userId) {
+            isUserExists(userId);
         }
 
-        return itemMapper.toDto(itemInRepository);
+        ItemSnapshot snapshot = itemLoads.load(Map.entry(itemId, state.getVersion()), () -> loadItemSnapshot(itemId));
+
+        if (snapshot.getOwnerId() == userId) {
+            Map<Boolean, Map<Long, BookingDtoShort>> bookings = getLastAndNextBookings(List.of(itemId));
+            BookingDtoShort lastBooking = bookings.get(true).get(itemId);
+            BookingDtoShort nextBooking = bookings.get(false).get(itemId);
+
+            return ItemViewDto.builder()
+                    .item(snapshot.getItem().toBuilder()
+                            .lastBooking(lastBooking)
+                            .nextBooking(nextBooking)
+                            .build())
+                    .eTag(String.format("\"%d-%d-%d\"", snapshot.getVersion(), getBookingId(lastBooking), getBookingId(nextBooking)))
+                    .owner(true)
+                    .build();
+        }
+
+        return ItemViewDto.builder()
+                .item(snapshot.getItem().toBuilder().build())
+                .eTag(String.format("\"%d\"", snapshot.getVersion()))
+                .build();
+    }
+
+    @Override
+    public String getItemETag(long userId, long itemId) {
+        ItemStateView state = getItemStateOrThrowException(itemId);
+
+        if (state.getOwnerId() == userId) {
+            return null;
+        }
+
+        isUserExists(userId);
+
+        return String.format("\"%d\"", state.getVersion());
+    }
+
+    @Override
+    public ItemAvailabilityDto getItemAvailability(long userId, long itemId, LocalDateTime from, LocalDateTime to) {
+        Validator.validateRange(from, to);
+        isUserExists(userId);
+
+        if (!itemRepository.existsById(itemId)) {
+            throw new EntityNotFoundException(String.format("Вещь с ID = %d не найдена", itemId));
+        }
+
+        return ItemAvailabilityDto.builder()
+                .itemId(itemId)
+                .from(from)
+                .to(to)
+                .slots(availabilityIndex.getSlots(itemId, from, to))
+                .build();
     }
 
     @Override
     @Transactional
     public ItemDto updateItem(long userId, long itemId, CreatingItemDto creatingItemDto) {
-        User userInRepository = getUserOrThrowException(userId);
         Item itemInRepository = getItemOrThrowException(itemId);
-        throwExceptionIfUserIsNotItemOwner(userInRepository, itemInRepository);
+        throwExceptionIfUserIsNotItemOwner(userId, itemInRepository);
         Item item = itemMapper.toItem(creatingItemDto);
+        searchIndex.remove(itemInRepository);
 
         if (item.getName() != null && !item.getName().isBlank()) {
             itemInRepository.setName(item.getName());
@@ -116,17 +187,19 @@ public class ItemServiceImpl implements ItemService {
         if (creatingItemDto.getAvailable() != null) {
             itemInRepository.setAvailable(creatingItemDto.getAvailable());
         }
+        searchIndex.add(itemInRepository);
 
         return itemMapper.toDto(itemInRepository);
     }
 
     @Override
     public void deleteItem(long userId, long itemId) {
-        User userInRepository = getUserOrThrowException(userId);
         Item itemInRepository = getItemOrThrowException(itemId);
-        throwExceptionIfUserIsNotItemOwner(userInRepository, itemInRepository);
+        throwExceptionIfUserIsNotItemOwner(userId, itemInRepository);
 
         itemRepository.deleteById(itemId);
+        searchIndex.remove(itemInRepository);
+        availabilityIndex.remove(itemId);
     }
 
     @Override
@@ -135,9 +208,7 @@ public class ItemServiceImpl implements ItemService {
         User userInRepository = getUserOrThrowException(userId);
         Item itemInRepository = getItemOrThrowException(itemId);
 
-        boolean bookingByUser = itemInRepository.getBookings().stream()
-                .anyMatch(b -> b.getBooker().getId() == userId
-                        && b.getDateEnd().isBefore(LocalDateTime.now()));
+        boolean bookingByUser = bookingRepository.existsFinishedByItemAndBooker(itemId, userId, LocalDateTime.now());
 
         if (!bookingByUser) {
             throw new NotAvailableBookingException(String.format("Пользователь с ID = %s не брал в аренду %s", userId, itemInRepository));
@@ -148,19 +219,74 @@ public class ItemServiceImpl implements ItemService {
         comment.setAuthor(userInRepository);
         comment.setItem(itemInRepository);
         comment.setCreationDate(LocalDateTime.now());
+        itemRepository.incrementVersion(itemId);
 
         return commentMapper.toDto(commentRepository.save(comment));
     }
 
+    private List<ItemDto> searchInIndex(String text, Pageable pageable) {
+        long[] ids = searchIndex.search(text);
+        int from = (int) Math.min(pageable.getOffset(), ids.length);
+        int to = Math.min(from + pageable.getPageSize(), ids.length);
+
+        if (from == to) {
+            return Collections.emptyList();
+        }
+
+        List<Long> pageIds = Arrays.stream(ids, from, to)
+                .boxed()
+                .collect(Collectors.toList());
+
+        return itemRepository.findAvailableByIds(pageIds).stream()
+                .map(itemMapper::toDto)
+                .collect(Collectors.toList());
+    }
+
+    private List<ItemDto> toDtoWithBooking(List<Item> items) {
+        List<Long> ids = items.stream()
+                .map(Item::getId)
+                .collect(Collectors.toList());
+
+        Map<Boolean, Map<Long, BookingDtoShort>> bookings = getLastAndNextBookings(ids);
+
+        return items.stream()
+                .map(item -> itemMapper.toDtoWithBooking(item,
+                        bookings.get(true).get(item.getId()),
+                        bookings.get(false).get(item.getId())))
+                .collect(Collectors.toList());
+    }
+
+    private Map<Boolean, Map<Long, BookingDtoShort>> getLastAndNextBookings(List<Long> itemIds) {
+        return bookingRepository.findLastAndNextByItemIds(itemIds, LocalDateTime.now()).stream()
+                .collect(Collectors.partitioningBy(ItemBookingView::isLast,
+                        Collectors.toMap(ItemBookingView::getItemId, bookingMapper::toBookingDtoShort)));
+    }
+
+    private ItemSnapshot loadItemSnapshot(long itemId) {
+        Item item = getItemOrThrowException(itemId);
+        ItemDto itemDto = itemMapper.toDto(item);
+        itemDto.setComments(List.copyOf(itemDto.getComments()));
+
+        return new ItemSnapshot(item.getOwner().getId(), item.getVersion(), itemDto);
+    }
+
+    private static long getBookingId(BookingDtoShort booking) {
+        return booking == null ? 0 : booking.getId();
+    }
+
     private User getUserOrThrowException(long id) {
-        return userRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException(String.format("Пользователь с ID = %d не найден", id)));
+        userService.getUserById(id);
+
+        return userRepository.getReferenceById(id);
     }
 
     private void isUserExists(long id) {
-        if (!userRepository.existsById(id)) {
-            throw new EntityNotFoundException(String.format("Пользователь с ID = %d не найден", id));
-        }
+        userService.getUserById(id);
+    }
+
+    private ItemStateView getItemStateOrThrowException(long id) {
+        return itemRepository.findStateById(id)
+                .orElseThrow(() -> new EntityNotFoundException(String.format("Вещь с ID = %d не найдена", id)));
     }
 
     private Item getItemOrThrowException(long id) {
@@ -168,11 +294,20 @@ public class ItemServiceImpl implements ItemService {
                 .orElseThrow(() -> new EntityNotFoundException(String.format("Вещь с ID = %d не найдена", id)));
     }
 
-    private void throwExceptionIfUserIsNotItemOwner(User user, Item itemOnStorage) {
-        if (!itemOnStorage.getOwner().equals(user)) {
-            throw new AccessDeniedException(String.format("Пользователь %s не является владельцем вещи %s",
-                    user,
+    private void throwExceptionIfUserIsNotItemOwner(long userId, Item itemOnStorage) {
+        if (itemOnStorage.getOwner().getId() != userId) {
+            isUserExists(userId);
+
+            throw new AccessDeniedException(String.format("Пользователь с ID = %d не является владельцем вещи %s",
+                    userId,
                     itemOnStorage));
         }
     }
+
+    @Value
+    private static class ItemSnapshot {
+        long ownerId;
+        long version;
+        ItemDto item;
+    }
 }
@@ -0,0 +1,84 @@
+package ru.practicum.shareit.item.dal;
+
+import java.util.Arrays;
+
+final class LongIntervalSet {
+    private static final long[] NONE = new long[0];
+    private static final LongIntervalSet EMPTY = new LongIntervalSet(NONE, NONE);
+
+    private final long[] starts;
+    private final long[] ends;
+
+    private LongIntervalSet(long[] starts, long[] ends) {
+        this.starts = starts;
+        this.ends = ends;
+    }
+
+    static LongIntervalSet empty() {
+        return EMPTY;
+    }
+
+    static LongIntervalSet ofSorted(long[] sortedStarts, long[] ends) {
+        long[] mergedStarts = new long[sortedStarts.length];
+        long[] mergedEnds = new long[sortedStarts.length];
+        int size = 0;
+
+        for (int i = 0; i < sortedStarts.length; i++) {
+            if (size > 0 && sortedStarts[i] <= mergedEnds[size - 1]) {
+                mergedEnds[size - 1] = Math.max(mergedEnds[size - 1], ends[i]);
+            } else {
+                mergedStarts[size] = sortedStarts[i];
+                mergedEnds[size] = ends[i];
+                size++;
+            }
+        }
+
+        return size == 0 ? EMPTY : new LongIntervalSet(Arrays.copyOf(mergedStarts, size), Arrays.copyOf(mergedEnds, size));
+    }
+
+    LongIntervalSet with(long start, long end) {
+        int first = Arrays.binarySearch(ends, start);
+        first = first >= 0 ? first : -first - 1;
+
+        int last = Arrays.binarySearch(starts, end);
+        last = last >= 0 ? last + 1 : -last - 1;
+
+        if (first < last) {
+            start = Math.min(start, starts[first]);
+            end = Math.max(end, ends[last - 1]);
+        }
+
+        int size = starts.length - (last - first) + 1;
+        long[] newStarts = new long[size];
+        long[] newEnds = new long[size];
+
+        System.arraycopy(starts, 0, newStarts, 0, first);
+        System.arraycopy(ends, 0, newEnds, 0, first);
+        newStarts[first] = start;
+        newEnds[first] = end;
+        System.arraycopy(starts, last, newStarts, first + 1, starts.length - last);
+        System.arraycopy(ends, last, newEnds, first + 1, ends.length - last);
+
+        return new LongIntervalSet(newStarts, newEnds);
+    }
+
+    long[] slice(long from, long to) {
+        int index = Arrays.binarySearch(ends, from);
+        index = index >= 0 ? index + 1 : -index - 1;
+
+        long[] result = new long[2 * (starts.length - index)];
+        int k = 0;
+
+        while (index < starts.length && starts[index] < to) {
+            result[k++] = Math.max(starts[index], from);
+            result[k++] = Math.min(ends[index], to);
+            index++;
+        }
+
+        return k == 0 ? NONE : Arrays.copyOf(result, k);
+    }
+
+    int size() {
+        return starts.length;
+    }
+}
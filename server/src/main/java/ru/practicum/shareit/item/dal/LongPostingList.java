@@ -0,0 +1,81 @@
+package ru.practicum.shareit.item.dal;
+
+import java.util.Arrays;
+
+class LongPostingList {
+    private static final long[] EMPTY = new long[0];
+
+    private long[] values = new long[2];
+    private int size;
+
+    boolean add(long value) {
+        int index = Arrays.binarySearch(values, 0, size, value);
+
+        if (index >= 0) {
+            return false;
+        }
+
+        index = -index - 1;
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        System.arraycopy(values, index, values, index + 1, size - index);
+        values[index] = value;
+        size++;
+
+        return true;
+    }
+
+    boolean remove(long value) {
+        int index = Arrays.binarySearch(values, 0, size, value);
+
+        if (index < 0) {
+            return false;
+        }
+
+        System.arraycopy(values, index + 1, values, index, size - index - 1);
+        size--;
+
+        return true;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+    long[] intersect(long[] other) {
+        if (size == 0 || other.length == 0) {
+            return EMPTY;
+        }
+
+        long[] result = new long[Math.min(size, other.length)];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+
+        while (i < size && j < other.length) {
+            if (values[i] < other[j]) {
+                i++;
+            } else if (values[i] > other[j]) {
+                j++;
+            } else {
+                result[k++] = values[i++];
+                j++;
+            }
+        }
+
+        return Arrays.copyOf(result, k);
+    }
+
+    static long[] empty() {
+        return EMPTY;
+    }
+}
@@ -1,53 +1,77 @@
 package ru.practicum.shareit.item.dao;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.item.dto.item.ItemStateView;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.model.ItemRequest;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
-    @Query(value = "SELECT i" +
+    @Query("SELECT i" +
             " FROM Item AS i" +
             " JOIN FETCH i.owner AS o" +
             " LEFT JOIN FETCH i.itemRequest" +
-            " LEFT JOIN FETCH i.comments" +
-            " LEFT JOIN FETCH i.bookings" +
-            " WHERE o.id = :id",
-            countQuery = "SELECT COUNT(i)" +
-                    " FROM Item i" +
-                    " WHERE i.owner.id = :id")
-    Page<Item> findAllByOwnerId(@Param("id") Long ownerId, Pageable page);
+            " WHERE o.id = :id" +
+            " ORDER BY i.id")
+    List<Item> findAllByOwnerId(@Param("id") Long ownerId, Pageable page);
+
 
     @Query("SELECT i" +
             " FROM Item AS i" +
             " JOIN FETCH i.owner" +
             " LEFT JOIN FETCH i.itemRequest" +
-            " LEFT JOIN FETCH i.comments" +
-            " LEFT JOIN FETCH i.bookings" +
+            " LEFT JOIN FETCH i.comments AS c" +
+            " LEFT JOIN FETCH c.author" +
             " WHERE i.id = :id")
     Optional<Item> findByIdWithOwner(@Param("id") Long id);
 
-    @Query(value = "SELECT i" +
+    @Query("SELECT i" +
             " FROM Item AS i" +
             " JOIN FETCH i.owner" +
             " LEFT JOIN FETCH i.itemRequest" +
-            " LEFT JOIN FETCH i.comments" +
-            " LEFT JOIN FETCH i.bookings" +
             " WHERE (UPPER(i.name) LIKE UPPER(CONCAT('%', :text, '%'))" +
             "     OR UPPER(i.description) LIKE UPPER(CONCAT('%', :text, '%')))" +
-            "     AND i.available = TRUE",
-            countQuery = "SELECT COUNT(i)" +
-                    " FROM Item AS i" +
-                    " WHERE (UPPER(i.name) LIKE UPPER(CONCAT('%', :text, '%'))" +
-                    "     OR UPPER(i.description) LIKE UPPER(CONCAT('%', :text, '%')))" +
-                    "     AND i.available = TRUE")
-    Page<Item> search(@Param("text") String text, Pageable page);
+            "     AND i.available = TRUE")
+    List<Item> search(@Param("text") String text, Pageable page);
+
+    @Query("SELECT i" +
+            " FROM Item AS i" +
+            " LEFT JOIN FETCH i.itemRequest" +
+            " WHERE i.id IN :ids" +
+            "     AND i.available = TRUE" +
+            " ORDER BY i.id")
+    List<Item> findAvailableByIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT i" +
+            " FROM Item AS i" +
+            " WHERE i.id > :id" +
+            "     AND i.available = TRUE" +
+            " ORDER BY i.id")
+    List<Item> findAvailableAfter(@Param("id") long id, Pageable page);
 
     List<Item> findItemByItemRequestIn(List<ItemRequest> requests);
+
+    @Query("SELECT i.owner.id AS ownerId, i.version AS version" +
+            " FROM Item AS i" +
+            " WHERE i.id = :id")
+    Optional<ItemStateView> findStateById(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE Item AS i" +
+            " SET i.version = i.version + 1" +
+            " WHERE i.id = :id")
+    void incrementVersion(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE Item AS i" +
+            " SET i.version = i.version + 1" +
+            " WHERE i.id IN (SELECT c.item.id FROM Comment AS c WHERE c.author.id = :authorId)")
+    void incrementVersionByCommentAuthor(@Param("authorId") Long authorId);
 }
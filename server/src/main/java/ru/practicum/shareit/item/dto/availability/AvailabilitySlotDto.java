@@ -0,0 +1,14 @@
+package ru.practicum.shareit.item.dto.availability;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class AvailabilitySlotDto {
+    private LocalDateTime start;
+    private LocalDateTime end;
+    private Boolean available;
+}
@@ -8,7 +8,7 @@ import ru.practicum.shareit.item.dto.comment.CommentDto;
 import java.util.List;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 public class ItemDto {
     private Long id;
     private String name;
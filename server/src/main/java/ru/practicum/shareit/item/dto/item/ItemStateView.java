@@ -0,0 +1,7 @@
+package ru.practicum.shareit.item.dto.item;
+
+public interface ItemStateView {
+    Long getOwnerId();
+
+    Long getVersion();
+}
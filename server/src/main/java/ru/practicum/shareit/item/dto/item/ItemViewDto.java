@@ -0,0 +1,12 @@
+package ru.practicum.shareit.item.dto.item;
+
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder
+public class ItemViewDto {
+    ItemDto item;
+    String eTag;
+    boolean owner;
+}
@@ -4,11 +4,7 @@ import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.Named;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.annotation.Lazy;
 import ru.practicum.shareit.booking.dto.BookingDtoShort;
-import ru.practicum.shareit.booking.mapper.BookingMapper;
-import ru.practicum.shareit.booking.model.Booking;
-import ru.practicum.shareit.booking.StatusType;
 import ru.practicum.shareit.item.dto.comment.CommentDto;
 import ru.practicum.shareit.item.dto.item.CreatingItemDto;
 import ru.practicum.shareit.item.dto.item.ItemDto;
@@ -16,7 +12,6 @@ import ru.practicum.shareit.item.dto.item.ItemDtoShort;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 
-import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
@@ -28,19 +23,17 @@ import java.util.stream.Collectors;
 public abstract class ItemMapper {
     @Autowired
     protected CommentMapper commentMapper;
-    @Autowired
-    @Lazy
-    protected BookingMapper bookingMapper;
 
     @Mapping(target = "comments", source = "item.comments", qualifiedByName = "getSortedCommentDto")
     @Mapping(target = "requestId", source = "itemRequest.id")
     public abstract ItemDto toDto(Item item);
 
+    @Mapping(target = "id", source = "item.id")
     @Mapping(target = "comments", source = "item.comments", qualifiedByName = "getSortedCommentDto")
-    @Mapping(target = "lastBooking", source = "item.bookings", qualifiedByName = "getLastBooking")
-    @Mapping(target = "nextBooking", source = "item.bookings", qualifiedByName = "getNextBooking")
-    @Mapping(target = "requestId", source = "itemRequest.id")
-    public abstract ItemDto toDtoWithBooking(Item item);
+    @Mapping(target = "lastBooking", source = "lastBooking")
+    @Mapping(target = "nextBooking", source = "nextBooking")
+    @Mapping(target = "requestId", source = "item.itemRequest.id")
+    public abstract ItemDto toDtoWithBooking(Item item, BookingDtoShort lastBooking, BookingDtoShort nextBooking);
 
     public abstract Item toItem(CreatingItemDto creatingItemDto);
 
@@ -59,34 +52,4 @@ public abstract class ItemMapper {
 
         return dtoComments;
     }
-
-    @Named("getLastBooking")
-    BookingDtoShort getLastBooking(Set<Booking> bookings) {
-        if (bookings == null) {
-            return null;
-        }
-
-        return bookings.stream()
-                .sorted(Comparator.comparing(Booking::getDateStart).reversed())
-                .filter(b -> b.getDateStart().isBefore(LocalDateTime.now()) &&
-                        b.getStatus().equals(StatusType.APPROVED))
-                .map(bookingMapper::toBookingDtoShort)
-                .findFirst()
-                .orElse(null);
-    }
-
-    @Named("getNextBooking")
-    BookingDtoShort getNextBooking(Set<Booking> bookings) {
-        if (bookings == null) {
-            return null;
-        }
-
-        return bookings.stream()
-                .sorted(Comparator.comparing(Booking::getDateStart))
-                .filter(b -> b.getDateStart().isAfter(LocalDateTime.now()) &&
-                        b.getStatus().equals(StatusType.APPROVED))
-                .map(bookingMapper::toBookingDtoShort)
-                .findFirst()
-                .orElse(null);
-    }
 }
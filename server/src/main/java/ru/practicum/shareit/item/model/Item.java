@@ -1,6 +1,7 @@
 package ru.practicum.shareit.item.model;
 
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
@@ -17,7 +18,8 @@ import java.util.Set;
 @AllArgsConstructor
 public class Item {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "items_seq")
+    @SequenceGenerator(name = "items_seq", sequenceName = "items_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "name", nullable = false)
@@ -29,6 +31,9 @@ public class Item {
     @Column(name = "is_available", nullable = false)
     private Boolean available;
 
+    @Version
+    private Long version;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @ToString.Exclude
     private User owner;
@@ -40,11 +45,13 @@ public class Item {
 
     @OneToMany
     @JoinColumn(name = "item_id")
+    @BatchSize(size = 64)
     @ToString.Exclude
     private Set<Comment> comments;
 
     @OneToMany
     @JoinColumn(name = "item_id")
+    @BatchSize(size = 64)
     @ToString.Exclude
     private Set<Booking> bookings;
 
@@ -1,7 +1,6 @@
 package ru.practicum.shareit.request.dal;
 
 import lombok.AllArgsConstructor;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -14,6 +13,7 @@ import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestReplyDto;
 import ru.practicum.shareit.request.mapper.ItemRequestMapper;
 import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.dal.UserService;
 import ru.practicum.shareit.user.dao.UserRepository;
 import ru.practicum.shareit.user.model.User;
 
@@ -32,6 +32,7 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     private ItemRepository itemRepository;
     private ItemRequestRepository itemRequestRepository;
     private ItemRequestMapper itemRequestMapper;
+    private UserService userService;
 
     @Override
     @Transactional
@@ -47,9 +48,14 @@ public class ItemRequestServiceImpl implements ItemRequestService {
 
     @Override
     public List<ItemRequestDto> getOwnerItemRequests(long userId) {
-        User user = getUserOrThrowException(userId);
+        List<ItemRequest> itemRequests = itemRequestRepository.findAllByRequesterId(userId);
+
+        if (itemRequests.isEmpty()) {
+            isUserExists(userId);
+
+            return Collections.emptyList();
+        }
 
-        List<ItemRequest> itemRequests = itemRequestRepository.findAllByRequester(user);
         Map<ItemRequest, List<Item>> items = getItemsForItemRequest(itemRequests);
 
         return itemRequests.stream()
@@ -64,10 +70,10 @@ public class ItemRequestServiceImpl implements ItemRequestService {
 
     @Override
     public List<ItemRequestDto> getAllItemRequests(long userId, Pageable pageable) {
-        User user = getUserOrThrowException(userId);
+        isUserExists(userId);
 
-        Page<ItemRequest> itemRequests = itemRequestRepository.findAllByRequesterNot(user, pageable);
-        Map<ItemRequest, List<Item>> items = getItemsForItemRequest(itemRequests.getContent());
+        List<ItemRequest> itemRequests = itemRequestRepository.findAllByRequesterIdNot(userId, pageable);
+        Map<ItemRequest, List<Item>> items = getItemsForItemRequest(itemRequests);
 
         return itemRequests.stream()
                 .map(itemRequest -> {
@@ -81,9 +87,7 @@ public class ItemRequestServiceImpl implements ItemRequestService {
 
     @Override
     public ItemRequestDto getItemRequest(long userId, long requestId) {
-        if (!userRepository.existsById(userId)) {
-            throw new EntityNotFoundException(String.format("Пользователь с ID = %d не найден", userId));
-        }
+        isUserExists(userId);
 
         ItemRequest itemRequest = itemRequestRepository.findById(requestId)
                 .orElseThrow(() -> new EntityNotFoundException(String.format("Запрос с ID = %d не найден", requestId)));
@@ -96,8 +100,13 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     }
 
     private User getUserOrThrowException(long id) {
-        return userRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException(String.format("Пользователь с ID = %d не найден", id)));
+        userService.getUserById(id);
+
+        return userRepository.getReferenceById(id);
+    }
+
+    private void isUserExists(long id) {
+        userService.getUserById(id);
     }
 
     private Map<ItemRequest, List<Item>> getItemsForItemRequest(List<ItemRequest> itemRequests) {
@@ -1,12 +1,10 @@
 package ru.practicum.shareit.request.dao;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.request.model.ItemRequest;
-import ru.practicum.shareit.user.model.User;
 
 import java.util.List;
 
@@ -14,16 +12,13 @@ public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long>
     @Query("SELECT i" +
             " FROM ItemRequest AS i" +
             " JOIN FETCH i.requester" +
-            " WHERE i.requester = :user" +
+            " WHERE i.requester.id = :id" +
             " ORDER BY i.created DESC")
-    List<ItemRequest> findAllByRequester(@Param("user") User owner);
+    List<ItemRequest> findAllByRequesterId(@Param("id") Long requesterId);
 
-    @Query(value = "SELECT i" +
+    @Query("SELECT i" +
             " FROM ItemRequest AS i" +
             " JOIN FETCH i.requester" +
-            " WHERE i.requester != :user",
-            countQuery = "SELECT COUNT(i)" +
-                    " FROM ItemRequest AS i" +
-                    " WHERE i.requester != :user")
-    Page<ItemRequest> findAllByRequesterNot(@Param("user") User user, Pageable page);
+            " WHERE i.requester.id <> :id")
+    List<ItemRequest> findAllByRequesterIdNot(@Param("id") Long requesterId, Pageable page);
 }
@@ -15,7 +15,8 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class ItemRequest {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "requests_seq")
+    @SequenceGenerator(name = "requests_seq", sequenceName = "requests_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "description", nullable = false)
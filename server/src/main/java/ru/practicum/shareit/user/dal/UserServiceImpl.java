@@ -1,11 +1,16 @@
 package ru.practicum.shareit.user.dal;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.config.CacheConfig;
 import ru.practicum.shareit.exception.AlreadyExistsException;
 import ru.practicum.shareit.exception.EntityNotFoundException;
+import ru.practicum.shareit.item.dao.ItemRepository;
 import ru.practicum.shareit.user.dao.UserRepository;
 import ru.practicum.shareit.user.dto.CreatingUserDto;
 import ru.practicum.shareit.user.dto.UserDto;
@@ -20,10 +25,12 @@ import java.util.stream.Collectors;
 @Transactional(readOnly = true)
 public class UserServiceImpl implements UserService {
     private final UserRepository repository;
+    private final ItemRepository itemRepository;
     private final UserMapper userMapper;
 
     @Override
     @Transactional
+    @CachePut(cacheNames = CacheConfig.USERS, key = "#result.id")
     public UserDto addUser(CreatingUserDto creatingUserDto) {
         User user = userMapper.toUser(creatingUserDto);
 
@@ -31,6 +38,7 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.USERS, key = "#id")
     public UserDto getUserById(long id) {
         return userMapper.toDto(getUserOrThrowException(id));
     }
@@ -44,6 +52,7 @@ public class UserServiceImpl implements UserService {
 
     @Override
     @Transactional
+    @CachePut(cacheNames = CacheConfig.USERS, key = "#userId")
     public UserDto updateUser(long userId, CreatingUserDto creatingUserDto) {
         User userInRepository = getUserOrThrowException(userId);
         User user = userMapper.toUser(creatingUserDto);
@@ -51,8 +60,9 @@ public class UserServiceImpl implements UserService {
         if (user.getEmail() != null && !user.getEmail().isBlank()) {
             userInRepository.setEmail(user.getEmail());
         }
-        if (user.getName() != null && !user.getName().isBlank()) {
+        if (user.getName() != null && !user.getName().isBlank() && !user.getName().equals(userInRepository.getName())) {
             userInRepository.setName(user.getName());
+            itemRepository.incrementVersionByCommentAuthor(userId);
         }
 
         return save(userInRepository);
@@ -60,6 +70,7 @@ public class UserServiceImpl implements UserService {
 
     @Override
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.USERS, key = "#id")
     public void deleteUser(long id) {
         getUserOrThrowException(id);
 
@@ -0,0 +1,42 @@
+package ru.practicum.shareit.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+public class SingleFlight<K, V> {
+    private final ConcurrentMap<K, CompletableFuture<V>> flights = new ConcurrentHashMap<>();
+
+    public V load(K key, Supplier<V> loader) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> inFlight = flights.putIfAbsent(key, flight);
+
+        if (inFlight != null) {
+            return join(inFlight);
+        }
+
+        try {
+            V value = loader.get();
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            flights.remove(key, flight);
+        }
+    }
+
+    private V join(CompletableFuture<V> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
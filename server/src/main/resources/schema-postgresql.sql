@@ -0,0 +1,58 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS items_available_name_trgm_idx
+    ON items USING gin (UPPER(name) gin_trgm_ops)
+    WHERE is_available;
+
+CREATE INDEX IF NOT EXISTS items_available_description_trgm_idx
+    ON items USING gin (UPPER(description) gin_trgm_ops)
+    WHERE is_available;
+
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+CREATE OR REPLACE VIEW bookings_approved_overlaps AS
+SELECT a.item_id, a.id AS booking_id, b.id AS overlapping_booking_id
+FROM bookings AS a
+JOIN bookings AS b ON b.item_id = a.item_id AND b.id > a.id
+WHERE a.status = 'APPROVED'
+    AND b.status = 'APPROVED'
+    AND tsrange(a.start_date, a.end_date) && tsrange(b.start_date, b.end_date);
+
+DO 'BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = ''bookings_approved_no_overlap'') THEN
+        IF EXISTS (SELECT 1 FROM bookings_approved_overlaps) THEN
+            RAISE WARNING ''Ограничение bookings_approved_no_overlap не создано: есть пересекающиеся подтвержденные бронирования (см. bookings_approved_overlaps). Отклоните лишние бронирования, ограничение будет добавлено при следующем запуске'';
+        ELSE
+            ALTER TABLE bookings ADD CONSTRAINT bookings_approved_no_overlap
+                EXCLUDE USING gist (item_id WITH =, tsrange(start_date, end_date) WITH &&)
+                WHERE (status = ''APPROVED'');
+        END IF;
+    END IF;
+END';
+
+UPDATE bookings
+SET owner_id = (SELECT i.owner_id FROM items AS i WHERE i.id = bookings.item_id)
+WHERE owner_id IS NULL;
+
+ALTER TABLE bookings ALTER COLUMN owner_id SET NOT NULL;
+
+CREATE OR REPLACE FUNCTION bookings_sync_owner() RETURNS trigger AS 'BEGIN
+    UPDATE bookings SET owner_id = NEW.owner_id WHERE item_id = NEW.id;
+    RETURN NEW;
+END' LANGUAGE plpgsql;
+
+DO 'BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_trigger WHERE tgname = ''items_owner_sync'') THEN
+        CREATE TRIGGER items_owner_sync
+            AFTER UPDATE OF owner_id ON items
+            FOR EACH ROW
+            WHEN (OLD.owner_id IS DISTINCT FROM NEW.owner_id)
+            EXECUTE PROCEDURE bookings_sync_owner();
+    END IF;
+END';
+
+SELECT setval('users_seq', GREATEST((SELECT last_value FROM users_seq), (SELECT COALESCE(MAX(id), 0) FROM users) + 50));
+SELECT setval('requests_seq', GREATEST((SELECT last_value FROM requests_seq), (SELECT COALESCE(MAX(id), 0) FROM requests) + 50));
+SELECT setval('items_seq', GREATEST((SELECT last_value FROM items_seq), (SELECT COALESCE(MAX(id), 0) FROM items) + 50));
+SELECT setval('bookings_seq', GREATEST((SELECT last_value FROM bookings_seq), (SELECT COALESCE(MAX(id), 0) FROM bookings) + 50));
+SELECT setval('comments_seq', GREATEST((SELECT last_value FROM comments_seq), (SELECT COALESCE(MAX(id), 0) FROM comments) + 50));
@@ -1,38 +1,80 @@
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+
 CREATE TABLE IF NOT EXISTS users (
-    id    BIGINT  NOT NULL GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
-    name  VARCHAR NOT NULL,
-    email VARCHAR NOT NULL UNIQUE
+    id      BIGINT  NOT NULL PRIMARY KEY,
+    name    VARCHAR NOT NULL,
+    email   VARCHAR NOT NULL UNIQUE,
+    version BIGINT  NOT NULL DEFAULT 0
 );
 
+CREATE SEQUENCE IF NOT EXISTS requests_seq START WITH 1 INCREMENT BY 50;
+
 CREATE TABLE IF NOT EXISTS requests (
-    id           BIGINT    NOT NULL GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    id           BIGINT    NOT NULL PRIMARY KEY,
     created      TIMESTAMP NOT NULL,
     description  VARCHAR   NOT NULL,
     requester_id BIGINT    NOT NULL REFERENCES users(id) ON DELETE CASCADE
 );
 
+CREATE SEQUENCE IF NOT EXISTS items_seq START WITH 1 INCREMENT BY 50;
+
 CREATE TABLE IF NOT EXISTS items (
-    id           BIGINT  NOT NULL GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    id           BIGINT  NOT NULL PRIMARY KEY,
     name         VARCHAR NOT NULL,
     description  VARCHAR NOT NULL,
     is_available BOOLEAN NOT NULL,
     owner_id     BIGINT  NOT NULL REFERENCES users(id) ON DELETE CASCADE,
-    request_id   BIGINT  REFERENCES requests(id) ON DELETE CASCADE
+    request_id   BIGINT  REFERENCES requests(id) ON DELETE CASCADE,
+    version      BIGINT  NOT NULL DEFAULT 0
 );
 
+CREATE SEQUENCE IF NOT EXISTS bookings_seq START WITH 1 INCREMENT BY 50;
+
 CREATE TABLE IF NOT EXISTS bookings (
-    id         BIGINT    NOT NULL GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    id         BIGINT    NOT NULL PRIMARY KEY,
     start_date TIMESTAMP NOT NULL,
     end_date   TIMESTAMP NOT NULL,
     item_id    BIGINT    NOT NULL REFERENCES items(id) ON DELETE CASCADE,
+    owner_id   BIGINT    NOT NULL REFERENCES users(id) ON DELETE CASCADE,
     booker_id  BIGINT    NOT NULL REFERENCES users(id) ON DELETE CASCADE,
-    status     VARCHAR   NOT NULL
+    status     VARCHAR   NOT NULL,
+    version    BIGINT    NOT NULL DEFAULT 0
 );
 
+ALTER TABLE users ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE items ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS owner_id BIGINT REFERENCES users(id) ON DELETE CASCADE;
+
+CREATE SEQUENCE IF NOT EXISTS comments_seq START WITH 1 INCREMENT BY 50;
+
 CREATE TABLE IF NOT EXISTS comments (
-    id        BIGINT    NOT NULL GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    id        BIGINT    NOT NULL PRIMARY KEY,
     text      VARCHAR   NOT NULL,
     created   TIMESTAMP NOT NULL,
     item_id   BIGINT    NOT NULL REFERENCES items(id) ON DELETE CASCADE,
     author_id BIGINT    NOT NULL REFERENCES users(id) ON DELETE CASCADE
-);
\ No newline at end of file
+);
+
+CREATE SEQUENCE IF NOT EXISTS booking_events_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS booking_events (
+    id         BIGINT    NOT NULL PRIMARY KEY,
+    booking_id BIGINT    NOT NULL,
+    item_id    BIGINT    NOT NULL,
+    booker_id  BIGINT    NOT NULL,
+    type       VARCHAR   NOT NULL,
+    created    TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS items_owner_idx ON items (owner_id);
+CREATE INDEX IF NOT EXISTS items_request_idx ON items (request_id);
+
+CREATE INDEX IF NOT EXISTS bookings_booker_start_idx ON bookings (booker_id, start_date DESC);
+CREATE INDEX IF NOT EXISTS bookings_booker_status_idx ON bookings (booker_id, status);
+CREATE INDEX IF NOT EXISTS bookings_owner_start_idx ON bookings (owner_id, start_date DESC);
+CREATE INDEX IF NOT EXISTS bookings_owner_status_idx ON bookings (owner_id, status);
+CREATE INDEX IF NOT EXISTS bookings_item_start_idx ON bookings (item_id, start_date);
+CREATE INDEX IF NOT EXISTS bookings_item_status_start_idx ON bookings (item_id, status, start_date);
+
+CREATE INDEX IF NOT EXISTS comments_item_idx ON comments (item_id);
@@ -5,24 +5,36 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import ru.practicum.shareit.booking.StatusType;
 import ru.practicum.shareit.booking.dal.BookingService;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingFilter;
 import ru.practicum.shareit.booking.dto.CreatingBookingDto;
+import ru.practicum.shareit.booking.model.BookingEventType;
+import ru.practicum.shareit.booking.stream.BookingStreamHub;
 import ru.practicum.shareit.item.dto.item.ItemDtoShort;
 import ru.practicum.shareit.user.dto.UserDtoShort;
 
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static ru.practicum.shareit.util.Constant.DATE_TIME_FORMATTER;
 import static ru.practicum.shareit.util.Constant.HEADER_USER_ID;
@@ -94,6 +106,35 @@ public class BookingControllerTest {
         verify(service, times(1)).addBooking(userDtoShort.getId(), creatingBookingDto);
     }
 
+    @Test
+    void shouldAddBookings() throws Exception {
+        when(service.addBookings(anyLong(), anyList()))
+                .thenReturn(List.of(
+                        BookingBatchResultDto.builder()
+                                .index(0)
+                                .booking(bookingDto)
+                                .build(),
+                        BookingBatchResultDto.builder()
+                                .index(1)
+                                .error("Вещь с ID = 2 не найдена")
+                                .build()));
+
+        String jsonBookings = mapper.writeValueAsString(List.of(creatingBookingDto, creatingBookingDto));
+
+        mvc.perform(post("/bookings/batch")
+                        .header(HEADER_USER_ID, userDtoShort.getId())
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.ALL_VALUE)
+                        .content(jsonBookings))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()", is(2)))
+                .andExpect(jsonPath("$[0].booking.id", is(bookingDto.getId().intValue())))
+                .andExpect(jsonPath("$[1].index", is(1)))
+                .andExpect(jsonPath("$[1].error", is("Вещь с ID = 2 не найдена")));
+        verify(service, times(1)).addBookings(userDtoShort.getId(), List.of(creatingBookingDto, creatingBookingDto));
+    }
+
     @Test
     void shouldGetExceptionWithApproveBookingWithoutHeader() throws Exception {
         mvc.perform(patch("/bookings/1")
@@ -165,6 +206,8 @@ public class BookingControllerTest {
 
     @Test
     void shouldGetBookingWithGetBookingByUserOwner() throws Exception {
+        when(service.getBookingETag(anyLong(), anyLong()))
+                .thenReturn("\"0-0-0\"");
         when(service.getBooking(anyLong(), anyLong()))
                 .thenReturn(bookingDto);
 
@@ -184,11 +227,110 @@ public class BookingControllerTest {
         verify(service, times(1)).getBooking(anyLong(), anyLong());
     }
 
+    @Test
+    void shouldGetNotModifiedWithGetBookingWithMatchingETag() throws Exception {
+        when(service.getBookingETag(anyLong(), anyLong()))
+                .thenReturn("\"0-0-0\"");
+
+        mvc.perform(get("/bookings/1")
+                        .header(HEADER_USER_ID, userDtoShort.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"0-0-0\"")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotModified());
+        verify(service, never()).getBooking(anyLong(), anyLong());
+    }
+
     @Test
     void shouldGetExceptionWithGetUserBookingsWithoutHeader() throws Exception {
         mvc.perform(get("/bookings")
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isBadRequest());
-        verify(service, never()).getUserBookings(anyLong(), anyString(), any(Pageable.class));
+        verify(service, never()).getUserBookings(anyLong(), anyString(), any(BookingFilter.class), any(Pageable.class));
+    }
+
+    @Test
+    void shouldGetOwnerBookingsAfterCursor() throws Exception {
+        when(service.getOwnerBookings(anyLong(), anyString(), any(BookingFilter.class), any(Pageable.class)))
+                .thenReturn(List.of(bookingDto));
+
+        mvc.perform(get("/bookings/owner")
+                        .header(HEADER_USER_ID, userDtoShort.getId())
+                        .param("state", "ALL")
+                        .param("from", "0")
+                        .param("size", "10")
+                        .param("after", "2023-10-01T10:00:00,15")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(bookingDto.getId().intValue())));
+        verify(service, times(1)).getOwnerBookings(1L, "ALL", BookingFilter.builder()
+                .after(BookingCursor.builder()
+                        .start(LocalDateTime.of(2023, 10, 1, 10, 0))
+                        .id(15L)
+                        .build())
+                .build(), PageRequest.of(0, 10));
+    }
+
+    @Test
+    void shouldGetUserBookingsForItemInRange() throws Exception {
+        when(service.getUserBookings(anyLong(), anyString(), any(BookingFilter.class), any(Pageable.class)))
+                .thenReturn(List.of(bookingDto));
+
+        mvc.perform(get("/bookings")
+                        .header(HEADER_USER_ID, userDtoShort.getId())
+                        .param("state", "WAITING")
+                        .param("from", "20")
+                        .param("size", "10")
+                        .param("itemId", "1")
+                        .param("start", "2023-10-01T10:00:00")
+                        .param("end", "2023-10-02T10:00:00")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(bookingDto.getId().intValue())));
+        verify(service, times(1)).getUserBookings(1L, "WAITING", BookingFilter.builder()
+                .itemId(1L)
+                .start(LocalDateTime.of(2023, 10, 1, 10, 0))
+                .end(LocalDateTime.of(2023, 10, 2, 10, 0))
+                .build(), PageRequest.of(2, 10));
+    }
+
+    @Test
+    void shouldGetExceptionWithGetUserBookingsWithWrongCursor() throws Exception {
+        mvc.perform(get("/bookings")
+                        .header(HEADER_USER_ID, userDtoShort.getId())
+                        .param("state", "ALL")
+                        .param("from", "0")
+                        .param("size", "10")
+                        .param("after", "2023-10-01T10:00:00")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+        verify(service, never()).getUserBookings(anyLong(), anyString(), any(BookingFilter.class), any(Pageable.class));
+    }
+
+    @Test
+    void shouldStreamBookingEvents() throws Exception {
+        BookingStreamHub hub = new BookingStreamHub(Runnable::run, 8, 10, Duration.ofMinutes(1), Duration.ofSeconds(10));
+        when(service.streamBookings(anyLong()))
+                .thenReturn(hub.subscribe(1L));
+
+        MvcResult result = mvc.perform(get("/bookings/stream")
+                        .header(HEADER_USER_ID, 1L)
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        hub.publish(2L, 1L, BookingEventType.APPROVED, bookingDto);
+
+        assertThat(result.getResponse().getContentType()).startsWith(MediaType.TEXT_EVENT_STREAM_VALUE);
+        assertThat(result.getResponse().getContentAsString(StandardCharsets.UTF_8))
+                .contains("event:APPROVED")
+                .contains("\"id\":1");
+        verify(service, times(1)).streamBookings(1L);
+    }
+
+    @Test
+    void shouldGetExceptionWithStreamBookingsWithoutHeader() throws Exception {
+        mvc.perform(get("/bookings/stream")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isBadRequest());
+        verify(service, never()).streamBookings(anyLong());
     }
 }
@@ -2,26 +2,41 @@ package ru.practicum.shareit.booking.dal;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.springframework.data.domain.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.StateType;
+import ru.practicum.shareit.booking.dao.BookingCriteria;
+import ru.practicum.shareit.booking.dao.BookingEventRepository;
 import ru.practicum.shareit.booking.dao.BookingRepository;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingFilter;
+import ru.practicum.shareit.booking.dto.BookingStateView;
 import ru.practicum.shareit.booking.dto.CreatingBookingDto;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingEventType;
+import ru.practicum.shareit.booking.stream.BookingStreamHub;
 import ru.practicum.shareit.booking.StatusType;
 import ru.practicum.shareit.exception.AccessDeniedException;
 import ru.practicum.shareit.exception.EntityNotFoundException;
 import ru.practicum.shareit.exception.NotAvailableBookingException;
+import ru.practicum.shareit.item.dal.ItemAvailabilityIndex;
 import ru.practicum.shareit.item.dao.ItemRepository;
 import ru.practicum.shareit.item.dto.item.ItemDtoShort;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.dal.UserService;
 import ru.practicum.shareit.user.dao.UserRepository;
 import ru.practicum.shareit.user.dto.UserDtoShort;
 import ru.practicum.shareit.user.model.User;
 
+import javax.validation.Validation;
 import javax.validation.ValidationException;
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
@@ -29,6 +44,7 @@ import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 class BookingServiceTest {
@@ -37,6 +53,10 @@ class BookingServiceTest {
     private static BookingRepository bookingRepository;
     private static BookingService bookingService;
     private static BookingMapper bookingMapper;
+    private static UserService userService;
+    private static ItemAvailabilityIndex availabilityIndex;
+    private static BookingEventRepository eventRepository;
+    private static BookingStreamHub streamHub;
 
     private final User user = User.builder()
             .id(1L)
@@ -136,8 +156,8 @@ class BookingServiceTest {
             .item(itemDtoShort)
             .build();
     private final List<Booking> bookings = List.of(bookingRejected, bookingApproved, bookingWaiting);
-    private final Page<Booking> bookingsPage = listBookingToPage();
     private final PageRequest page = PageRequest.of(0, 5, Sort.by("dateStart").descending());
+    private final BookingFilter filter = BookingFilter.builder().build();
 
 
     @BeforeEach
@@ -146,13 +166,18 @@ class BookingServiceTest {
         itemRepository = Mockito.mock(ItemRepository.class);
         userRepository = Mockito.mock(UserRepository.class);
         bookingMapper = Mockito.mock(BookingMapper.class);
-        bookingService = new BookingServiceImpl(bookingRepository, userRepository, itemRepository, bookingMapper);
+        userService = Mockito.mock(UserService.class);
+        availabilityIndex = Mockito.mock(ItemAvailabilityIndex.class);
+        eventRepository = Mockito.mock(BookingEventRepository.class);
+        streamHub = Mockito.mock(BookingStreamHub.class);
+        bookingService = new BookingServiceImpl(bookingRepository, userRepository, itemRepository, bookingMapper, userService,
+                availabilityIndex, eventRepository, streamHub, Validation.buildDefaultValidatorFactory().getValidator());
     }
 
     @Test
     void shouldCreateBooking() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user2));
+        when(userRepository.getReferenceById(anyLong()))
+                .thenReturn(user2);
         when(itemRepository.findById(anyLong()))
                 .thenReturn(Optional.ofNullable(item));
         when(bookingRepository.save(any(Booking.class)))
@@ -171,59 +196,62 @@ class BookingServiceTest {
                 .hasFieldOrPropertyWithValue("status", StatusType.WAITING)
                 .hasFieldOrPropertyWithValue("booker", booker)
                 .hasFieldOrPropertyWithValue("item", itemDtoShort);
-        verify(userRepository, times(1)).findById(anyLong());
+        verify(userService, times(1)).getUserById(anyLong());
         verify(itemRepository, times(1)).findById(anyLong());
         verify(bookingRepository, times(1)).save(any(Booking.class));
+        verify(bookingMapper, times(1)).toEvent(bookingWaiting, BookingEventType.CREATED);
+        verify(eventRepository, times(1)).save(any());
+        verify(streamHub, times(1)).publish(1L, 2L, BookingEventType.CREATED, bookingWaitingDto);
     }
 
     @Test
     void shouldGetExceptionCreateBookingNotAvailable() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user2));
+        when(userRepository.getReferenceById(anyLong()))
+                .thenReturn(user2);
         when(itemRepository.findById(anyLong()))
                 .thenReturn(Optional.ofNullable(itemNotAvailable));
         when(bookingRepository.save(any(Booking.class)))
                 .thenReturn(bookingApproved);
 
         assertThrows(NotAvailableBookingException.class, () -> bookingService.addBooking(2L, creatingBookingDtoWithNotAvailableItem));
-        verify(userRepository, times(1)).findById(anyLong());
+        verify(userService, times(1)).getUserById(anyLong());
         verify(itemRepository, times(1)).findById(anyLong());
     }
 
     @Test
     void shouldGetExceptionCreateBookingNotFoundUser() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.empty());
+        when(userService.getUserById(anyLong()))
+                .thenThrow(new EntityNotFoundException("Пользователь не найден"));
         when(itemRepository.findById(anyLong()))
                 .thenReturn(Optional.ofNullable(item));
         when(bookingRepository.save(any(Booking.class)))
                 .thenReturn(bookingApproved);
 
         assertThrows(EntityNotFoundException.class, () -> bookingService.addBooking(2L, creatingBookingDto));
-        verify(userRepository, times(1)).findById(anyLong());
+        verify(userService, times(1)).getUserById(anyLong());
         verify(itemRepository, never()).findById(anyLong());
         verify(bookingRepository, never()).save(any(Booking.class));
     }
 
     @Test
     void shouldGetExceptionCreateBookingNotFoundItem() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user));
+        when(userRepository.getReferenceById(anyLong()))
+                .thenReturn(user);
         when(itemRepository.findById(anyLong()))
                 .thenReturn(Optional.empty());
         when(bookingRepository.save(any(Booking.class)))
                 .thenReturn(bookingApproved);
 
         assertThrows(EntityNotFoundException.class, () -> bookingService.addBooking(2L, creatingBookingDto));
-        verify(userRepository, times(1)).findById(anyLong());
+        verify(userService, times(1)).getUserById(anyLong());
         verify(itemRepository, times(1)).findById(anyLong());
         verify(bookingRepository, never()).save(any(Booking.class));
     }
 
     @Test
     void shouldGetExceptionCreateBookingNotValidDateException() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user));
+        when(userRepository.getReferenceById(anyLong()))
+                .thenReturn(user);
         when(itemRepository.findById(anyLong()))
                 .thenReturn(Optional.ofNullable(item));
         when(bookingRepository.save(any(Booking.class)))
@@ -235,30 +263,138 @@ class BookingServiceTest {
                 .end(start)
                 .build();
         assertThrows(ValidationException.class, () -> bookingService.addBooking(2L, creatingBookingDtoIncorrect));
-        verify(userRepository, times(1)).findById(anyLong());
+        verify(userService, times(1)).getUserById(anyLong());
         verify(itemRepository, never()).findById(anyLong());
         verify(bookingRepository, never()).save(any(Booking.class));
     }
 
     @Test
     void shouldGetExceptionCreateBookingNotFoundSelfItem() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user));
+        when(userRepository.getReferenceById(anyLong()))
+                .thenReturn(user);
         when(itemRepository.findById(anyLong()))
                 .thenReturn(Optional.ofNullable(item));
         when(bookingRepository.save(any(Booking.class)))
                 .thenReturn(bookingApproved);
 
         assertThrows(EntityNotFoundException.class, () -> bookingService.addBooking(1L, creatingBookingDto));
-        verify(userRepository, times(1)).findById(anyLong());
+        verify(userService, times(1)).getUserById(anyLong());
         verify(itemRepository, times(1)).findById(anyLong());
         verify(bookingRepository, never()).save(any(Booking.class));
     }
 
+    @Test
+    void shouldCreateBookingsWithPerEntryErrors() {
+        Item ownItem = Item.builder()
+                .id(3L)
+                .available(true)
+                .owner(user2)
+                .build();
+        CreatingBookingDto future = CreatingBookingDto.builder()
+                .itemId(item.getId())
+                .start(end.plusDays(1))
+                .end(end.plusDays(2))
+                .build();
+        CreatingBookingDto overlapping = CreatingBookingDto.builder()
+                .itemId(item.getId())
+                .start(end.minusHours(1))
+                .end(end.plusHours(1))
+                .build();
+        CreatingBookingDto notFound = CreatingBookingDto.builder()
+                .itemId(666L)
+                .start(end.plusDays(1))
+                .end(end.plusDays(2))
+                .build();
+        CreatingBookingDto own = CreatingBookingDto.builder()
+                .itemId(ownItem.getId())
+                .start(end.plusDays(1))
+                .end(end.plusDays(2))
+                .build();
+        CreatingBookingDto incomplete = CreatingBookingDto.builder()
+                .itemId(item.getId())
+                .build();
+        when(userRepository.getReferenceById(anyLong()))
+                .thenReturn(user2);
+        when(itemRepository.findAllById(anyCollection()))
+                .thenReturn(List.of(item, ownItem));
+        when(bookingRepository.findByItemIdsAndStatusBetween(anyCollection(), any(StatusType.class),
+                any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(List.of(bookingApproved));
+        when(bookingMapper.toBooking(any(CreatingBookingDto.class)))
+                .thenReturn(booking);
+        when(bookingRepository.saveAll(anyList()))
+                .thenReturn(List.of(bookingWaiting));
+        when(bookingMapper.toDto(any(Booking.class)))
+                .thenReturn(bookingWaitingDto);
+
+        List<BookingBatchResultDto> results = bookingService.addBookings(2L,
+                List.of(future, overlapping, notFound, own, incomplete));
+
+        assertThat(results.size()).isEqualTo(5);
+        assertThat(results.get(0))
+                .hasFieldOrPropertyWithValue("index", 0)
+                .hasFieldOrPropertyWithValue("booking", bookingWaitingDto)
+                .hasFieldOrPropertyWithValue("error", null);
+        assertThat(results.get(1).getError()).startsWith("Вещь с ID = 1 уже забронирована");
+        assertThat(results.get(2).getError()).isEqualTo("Вещь с ID = 666 не найдена");
+        assertThat(results.get(3).getError()).startsWith("Пользователь с ID = 2 является владельцем");
+        assertThat(results.get(4).getError()).contains("start: ", "end: ");
+        verify(userService, times(1)).getUserById(2L);
+        verify(itemRepository, times(1)).findAllById(anyCollection());
+        verify(bookingRepository, times(1)).saveAll(List.of(booking));
+        verify(eventRepository, times(1)).saveAll(anyList());
+        verify(bookingRepository, never()).save(any(Booking.class));
+    }
+
+    @Test
+    void shouldCreateBookingsWithValidationAndUnexpectedErrorsInTheirSlots() {
+        CreatingBookingDto future = CreatingBookingDto.builder()
+                .itemId(item.getId())
+                .start(end.plusDays(1))
+                .end(end.plusDays(2))
+                .build();
+        CreatingBookingDto past = CreatingBookingDto.builder()
+                .itemId(item.getId())
+                .start(LocalDateTime.now().minusDays(1))
+                .end(end.plusDays(2))
+                .build();
+        CreatingBookingDto reversed = CreatingBookingDto.builder()
+                .itemId(item.getId())
+                .start(end.plusDays(2))
+                .end(end.plusDays(1))
+                .build();
+        CreatingBookingDto broken = CreatingBookingDto.builder()
+                .itemId(item.getId())
+                .start(end.plusDays(3))
+                .end(end.plusDays(4))
+                .build();
+        when(itemRepository.findAllById(anyCollection()))
+                .thenReturn(List.of(item));
+        when(bookingMapper.toBooking(future))
+                .thenReturn(booking);
+        when(bookingMapper.toBooking(broken))
+                .thenThrow(new IllegalStateException());
+        when(bookingRepository.saveAll(anyList()))
+                .thenReturn(List.of(bookingWaiting));
+        when(bookingMapper.toDto(any(Booking.class)))
+                .thenReturn(bookingWaitingDto);
+
+        List<BookingBatchResultDto> results = bookingService.addBookings(2L,
+                Arrays.asList(future, past, reversed, null, broken));
+
+        assertThat(results.size()).isEqualTo(5);
+        assertThat(results.get(0))
+                .hasFieldOrPropertyWithValue("booking", bookingWaitingDto)
+                .hasFieldOrPropertyWithValue("error", null);
+        assertThat(results.get(1).getError()).startsWith("start: ");
+        assertThat(results.get(2).getError()).isEqualTo("Начало бронирования должно быть раньше окончания");
+        assertThat(results.get(3).getError()).isEqualTo("Бронирование не указано");
+        assertThat(results.get(4).getError()).isEqualTo("IllegalStateException");
+        verify(bookingRepository, times(1)).saveAll(List.of(booking));
+    }
+
     @Test
     void shouldApproveBooking() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user));
         when(bookingRepository.findById(anyLong()))
                 .thenReturn(Optional.ofNullable(bookingWaiting));
         when(bookingMapper.toDto(any(Booking.class)))
@@ -273,14 +409,64 @@ class BookingServiceTest {
                 .hasFieldOrPropertyWithValue("status", StatusType.APPROVED)
                 .hasFieldOrPropertyWithValue("booker", booker)
                 .hasFieldOrPropertyWithValue("item", itemDtoShort);
-        verify(userRepository, times(1)).findById(anyLong());
+        verify(userService, never()).getUserById(anyLong());
         verify(bookingRepository, times(1)).findById(anyLong());
+        verify(itemRepository, times(1)).incrementVersion(item.getId());
+        verify(availabilityIndex, times(1)).addApproved(item.getId(), start, end);
+        verify(bookingMapper, times(1)).toEvent(bookingWaiting, BookingEventType.APPROVED);
+        verify(streamHub, times(1)).publish(1L, 2L, BookingEventType.APPROVED, bookingApprovedDto);
+    }
+
+    @Test
+    void shouldGetExceptionCreateBookingOverlapsApproved() {
+        when(itemRepository.findById(anyLong()))
+                .thenReturn(Optional.ofNullable(item));
+        when(bookingRepository.findFirstByItemIdAndStatusAndDateStartBeforeAndDateEndAfterOrderByDateStart(anyLong(),
+                any(StatusType.class), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(Optional.of(bookingApproved));
+
+        assertThrows(NotAvailableBookingException.class, () -> bookingService.addBooking(2L, creatingBookingDto));
+        verify(bookingRepository, never()).save(any(Booking.class));
+    }
+
+    @Test
+    void shouldCreateBookingWhenNoApprovedIntersects() {
+        when(itemRepository.findById(anyLong()))
+                .thenReturn(Optional.ofNullable(item));
+        when(bookingRepository.findFirstByItemIdAndStatusAndDateStartBeforeAndDateEndAfterOrderByDateStart(anyLong(),
+                any(StatusType.class), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(Optional.empty());
+        when(bookingMapper.toBooking(any(CreatingBookingDto.class)))
+                .thenReturn(booking);
+        when(bookingRepository.save(any(Booking.class)))
+                .thenReturn(bookingWaiting);
+        when(bookingMapper.toDto(any(Booking.class)))
+                .thenReturn(bookingWaitingDto);
+
+        BookingDto getBookingDto = bookingService.addBooking(2L, creatingBookingDto);
+
+        assertThat(getBookingDto)
+                .hasFieldOrPropertyWithValue("id", 3L)
+                .hasFieldOrPropertyWithValue("status", StatusType.WAITING);
+        verify(bookingRepository, times(1)).findFirstByItemIdAndStatusAndDateStartBeforeAndDateEndAfterOrderByDateStart(
+                item.getId(), StatusType.APPROVED, creatingBookingDto.getEnd(), creatingBookingDto.getStart());
+        verify(bookingRepository, times(1)).save(any(Booking.class));
+    }
+
+    @Test
+    void shouldGetExceptionApproveBookingOverlapsApproved() {
+        when(bookingRepository.findById(anyLong()))
+                .thenReturn(Optional.ofNullable(bookingWaiting));
+        when(bookingRepository.findFirstByItemIdAndStatusAndDateStartBeforeAndDateEndAfterOrderByDateStart(anyLong(),
+                any(StatusType.class), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(Optional.of(bookingApproved));
+
+        assertThrows(NotAvailableBookingException.class, () -> bookingService.approveBooking(1L, 3L, true));
+        assertThat(bookingWaiting).hasFieldOrPropertyWithValue("status", StatusType.WAITING);
     }
 
     @Test
     void shouldRejectBooking() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user2));
         when(bookingRepository.findById(anyLong()))
                 .thenReturn(Optional.ofNullable(bookingRejected));
         when(bookingMapper.toDto(any(Booking.class)))
@@ -294,72 +480,83 @@ class BookingServiceTest {
                 .hasFieldOrPropertyWithValue("status", StatusType.REJECTED)
                 .hasFieldOrPropertyWithValue("booker", booker)
                 .hasFieldOrPropertyWithValue("item", itemDtoShort);
-        verify(userRepository, times(1)).findById(anyLong());
+        verify(userService, never()).getUserById(anyLong());
         verify(bookingRepository, times(1)).findById(anyLong());
+        verify(bookingMapper, times(1)).toEvent(bookingRejected, BookingEventType.REJECTED);
+        verify(streamHub, times(1)).publish(1L, 2L, BookingEventType.REJECTED, bookingRejectedDto);
+        verify(availabilityIndex, never()).addApproved(anyLong(), any(LocalDateTime.class), any(LocalDateTime.class));
+        verify(availabilityIndex, never()).remove(anyLong());
+    }
+
+    @Test
+    void shouldFreeAvailabilityWhenRejectingApprovedBooking() {
+        when(bookingRepository.findById(anyLong()))
+                .thenReturn(Optional.ofNullable(bookingApproved));
+        when(bookingMapper.toDto(any(Booking.class)))
+                .thenReturn(bookingRejectedDto);
+
+        bookingService.approveBooking(1L, 1L, false);
+
+        assertThat(bookingApproved).hasFieldOrPropertyWithValue("status", StatusType.REJECTED);
+        verify(itemRepository, times(1)).incrementVersion(item.getId());
+        verify(availabilityIndex, times(1)).remove(item.getId());
+        verify(availabilityIndex, never()).addApproved(anyLong(), any(LocalDateTime.class), any(LocalDateTime.class));
     }
 
     @Test
     void shouldGetExceptionWithApproveBookingNoFoundUser() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.empty());
+        when(userService.getUserById(anyLong()))
+                .thenThrow(new EntityNotFoundException("Пользователь не найден"));
         when(bookingRepository.findById(anyLong()))
                 .thenReturn(Optional.ofNullable(bookingApproved));
         when(bookingRepository.save(any(Booking.class)))
                 .thenReturn(bookingApproved);
 
-        assertThrows(EntityNotFoundException.class, () -> bookingService.approveBooking(1L, 1L, true));
-        verify(userRepository, times(1)).findById(anyLong());
+        assertThrows(EntityNotFoundException.class, () -> bookingService.approveBooking(666L, 1L, true));
+        verify(userService, times(1)).getUserById(anyLong());
         verify(bookingRepository, never()).save(any(Booking.class));
-        verify(bookingRepository, never()).findById(anyLong());
+        verify(bookingRepository, times(1)).findById(anyLong());
     }
 
     @Test
     void shouldGetExceptionWithApproveBookingNoFoundBooking() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user));
         when(bookingRepository.findById(anyLong()))
                 .thenReturn(Optional.empty());
         when(bookingRepository.save(any(Booking.class)))
                 .thenReturn(bookingApproved);
 
         assertThrows(EntityNotFoundException.class, () -> bookingService.approveBooking(1L, 1L, true));
-        verify(userRepository, times(1)).findById(anyLong());
+        verify(userService, never()).getUserById(anyLong());
         verify(bookingRepository, never()).save(any(Booking.class));
         verify(bookingRepository, times(1)).findById(anyLong());
     }
 
     @Test
     void shouldGetExceptionWithApproveBookingNoFoundOwner() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user));
         when(bookingRepository.findById(anyLong()))
                 .thenReturn(Optional.ofNullable(bookingApproved));
         when(bookingRepository.save(any(Booking.class)))
                 .thenReturn(bookingApproved);
 
         assertThrows(AccessDeniedException.class, () -> bookingService.approveBooking(2L, 1L, true));
-        verify(userRepository, times(1)).findById(anyLong());
+        verify(userService, times(1)).getUserById(anyLong());
         verify(bookingRepository, never()).save(any(Booking.class));
         verify(bookingRepository, times(1)).findById(anyLong());
     }
 
     @Test
     void shouldGetExceptionWithApproveBookingNotAvailableAlreadyApproved() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user));
         when(bookingRepository.findById(anyLong()))
                 .thenReturn(Optional.ofNullable(bookingApproved));
 
         assertThrows(NotAvailableBookingException.class, () -> bookingService.approveBooking(1L, 1L, true));
-        verify(userRepository, times(1)).findById(anyLong());
+        verify(userService, never()).getUserById(anyLong());
         verify(bookingRepository, never()).save(any(Booking.class));
         verify(bookingRepository, times(1)).findById(anyLong());
     }
 
     @Test
     void shouldGetBookingByUserOwnerItem() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user));
         when(bookingRepository.findById(anyLong()))
                 .thenReturn(Optional.ofNullable(bookingWaiting));
         when(bookingMapper.toDto(any(Booking.class)))
@@ -374,14 +571,12 @@ class BookingServiceTest {
                 .hasFieldOrPropertyWithValue("status", StatusType.WAITING)
                 .hasFieldOrPropertyWithValue("booker", booker)
                 .hasFieldOrPropertyWithValue("item", itemDtoShort);
-        verify(userRepository, times(1)).findById(anyLong());
+        verify(userService, never()).getUserById(anyLong());
         verify(bookingRepository, times(1)).findById(anyLong());
     }
 
     @Test
     void shouldGetBookingByUserOwnerBooking() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user));
         when(bookingRepository.findById(anyLong()))
                 .thenReturn(Optional.ofNullable(bookingApproved));
         when(bookingMapper.toDto(any(Booking.class)))
@@ -396,259 +591,252 @@ class BookingServiceTest {
                 .hasFieldOrPropertyWithValue("status", StatusType.APPROVED)
                 .hasFieldOrPropertyWithValue("booker", booker)
                 .hasFieldOrPropertyWithValue("item", itemDtoShort);
-        verify(userRepository, times(1)).findById(anyLong());
+        verify(userService, never()).getUserById(anyLong());
         verify(bookingRepository, times(1)).findById(anyLong());
     }
 
     @Test
     void shouldGetExceptionWithGetBookingByUserOwnerNotFoundUser() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.empty());
+        when(userService.getUserById(anyLong()))
+                .thenThrow(new EntityNotFoundException("Пользователь не найден"));
         when(bookingRepository.findById(anyLong()))
                 .thenReturn(Optional.ofNullable(bookingApproved));
 
-        assertThrows(EntityNotFoundException.class, () -> bookingService.getBooking(1L, 1L));
-        verify(userRepository, times(1)).findById(anyLong());
-        verify(bookingRepository, never()).findById(anyLong());
+        assertThrows(EntityNotFoundException.class, () -> bookingService.getBooking(666L, 1L));
+        verify(userService, times(1)).getUserById(anyLong());
+        verify(bookingRepository, times(1)).findById(anyLong());
     }
 
     @Test
     void shouldGetExceptionWithGetBookingByUserOwnerNotFoundBooking() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user));
         when(bookingRepository.findById(anyLong()))
                 .thenReturn(Optional.empty());
 
         assertThrows(EntityNotFoundException.class, () -> bookingService.getBooking(1L, 1L));
-        verify(userRepository, times(1)).findById(anyLong());
+        verify(userService, never()).getUserById(anyLong());
         verify(bookingRepository, times(1)).findById(anyLong());
     }
 
     @Test
     void shouldGetExceptionWithGetBookingByUserOwnerNotFoundOwner() {
-        final User user3 = User.builder()
-                .id(3L)
-                .name("user3")
-                .email("email3@ya.ru")
-                .build();
-
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user3));
         when(bookingRepository.findById(anyLong()))
                 .thenReturn(Optional.ofNullable(bookingApproved));
 
         assertThrows(AccessDeniedException.class, () -> bookingService.getBooking(666L, 1L));
-        verify(userRepository, times(1)).findById(anyLong());
+        verify(userService, times(1)).getUserById(anyLong());
         verify(bookingRepository, times(1)).findById(anyLong());
     }
 
     @Test
-    void shouldGetUserBookingsWithAll() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user));
-        when(bookingRepository.findAllByBooker(any(User.class), any(Pageable.class)))
-                .thenReturn(bookingsPage);
+    void shouldGetETagWithGetBookingByBooker() {
+        BookingStateView state = Mockito.mock(BookingStateView.class);
+        when(state.getBookerId()).thenReturn(2L);
+        when(state.getOwnerId()).thenReturn(1L);
+        when(state.getVersion()).thenReturn(1L);
+        when(state.getItemVersion()).thenReturn(3L);
+        when(state.getBookerVersion()).thenReturn(0L);
+        when(bookingRepository.findStateById(anyLong()))
+                .thenReturn(Optional.of(state));
+
+        assertThat(bookingService.getBookingETag(2L, 1L)).isEqualTo("\"1-3-0\"");
+        verify(userService, never()).getUserById(anyLong());
+        verify(bookingRepository, never()).findById(anyLong());
+    }
 
-        List<BookingDto> bookings = bookingService.getUserBookings(1L, "aLl", page);
+    @Test
+    void shouldGetExceptionWithGetETagByNotOwnerOrBooker() {
+        BookingStateView state = Mockito.mock(BookingStateView.class);
+        when(state.getBookerId()).thenReturn(2L);
+        when(state.getOwnerId()).thenReturn(1L);
+        when(bookingRepository.findStateById(anyLong()))
+                .thenReturn(Optional.of(state));
 
-        assertThat(bookings).asList()
-                .hasSize(3);
-        verify(userRepository, times(1)).findById(anyLong());
-        verify(bookingRepository, times(1)).findAllByBooker(any(User.class), any(Pageable.class));
+        assertThrows(AccessDeniedException.class, () -> bookingService.getBookingETag(666L, 1L));
+        verify(userService, times(1)).getUserById(anyLong());
     }
 
     @Test
-    void shouldGetExceptionWithGetUserBookingsWithAll() {
-        when(userRepository.findById(anyLong()))
+    void shouldGetExceptionWithGetETagWithNotFoundBooking() {
+        when(bookingRepository.findStateById(anyLong()))
                 .thenReturn(Optional.empty());
-        when(bookingRepository.findAllByBooker(any(User.class), any(Pageable.class)))
-                .thenReturn(bookingsPage);
 
-        assertThrows(EntityNotFoundException.class, () -> bookingService.getUserBookings(1L, "aLl", page));
-        verify(userRepository, times(1)).findById(anyLong());
-        verify(bookingRepository, never()).findAllByBooker(any(User.class), any(Pageable.class));
+        assertThrows(EntityNotFoundException.class, () -> bookingService.getBookingETag(1L, 1L));
+        verify(userService, never()).getUserById(anyLong());
     }
 
     @Test
-    void shouldGetUserBookingsWithCurrent() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user));
-        when(bookingRepository.findAllByBookerAndCurrent(any(User.class), any(LocalDateTime.class), any(Pageable.class)))
-                .thenReturn(bookingsPage);
+    void shouldGetUserBookingsWithAll() {
+        when(bookingRepository.findBookings(any(BookingCriteria.class), any(Pageable.class)))
+                .thenReturn(bookings);
 
-        List<BookingDto> bookings = bookingService.getUserBookings(1L, "cuRRenT", page);
+        List<BookingDto> bookings = bookingService.getUserBookings(1L, "aLl", filter, page);
 
         assertThat(bookings).asList()
                 .hasSize(3);
-        verify(userRepository, times(1)).findById(anyLong());
-        verify(bookingRepository, times(1)).findAllByBookerAndCurrent(any(User.class), any(LocalDateTime.class), any(Pageable.class));
+        BookingCriteria criteria = captureCriteria();
+        assertThat(criteria)
+                .hasFieldOrPropertyWithValue("role", BookingCriteria.Role.BOOKER)
+                .hasFieldOrPropertyWithValue("userId", 1L)
+                .hasFieldOrPropertyWithValue("state", StateType.ALL)
+                .hasFieldOrPropertyWithValue("filter", filter);
+        assertThat(criteria.getNow()).isNotNull();
+        verify(userService, never()).getUserById(anyLong());
     }
 
     @Test
-    void shouldGetUserBookingsWithPast() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user));
-        when(bookingRepository.findAllByBookerAndPast(any(User.class), any(LocalDateTime.class), any(Pageable.class)))
-                .thenReturn(bookingsPage);
-
-        List<BookingDto> bookings = bookingService.getUserBookings(1L, "pAST", page);
+    void shouldGetExceptionWithGetUserBookingsWithAll() {
+        when(userService.getUserById(anyLong()))
+                .thenThrow(new EntityNotFoundException("Пользователь не найден"));
+        when(bookingRepository.findBookings(any(BookingCriteria.class), any(Pageable.class)))
+                .thenReturn(List.of());
 
-        assertThat(bookings).asList()
-                .hasSize(3);
-        verify(userRepository, times(1)).findById(anyLong());
-        verify(bookingRepository, times(1)).findAllByBookerAndPast(any(User.class), any(LocalDateTime.class), any(Pageable.class));
+        assertThrows(EntityNotFoundException.class, () -> bookingService.getUserBookings(1L, "aLl", filter, page));
+        verify(userService, times(1)).getUserById(anyLong());
+        verify(bookingRepository, times(1)).findBookings(any(BookingCriteria.class), any(Pageable.class));
     }
 
     @Test
-    void shouldGetUserBookingsWithFuture() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user));
-        when(bookingRepository.findAllByBookerAndFuture(any(User.class), any(LocalDateTime.class), any(Pageable.class)))
-                .thenReturn(bookingsPage);
+    void shouldGetEmptyUserBookingsForExistingUser() {
+        when(bookingRepository.findBookings(any(BookingCriteria.class), any(Pageable.class)))
+                .thenReturn(List.of());
 
-        List<BookingDto> bookings = bookingService.getUserBookings(1L, "FUTURE", page);
+        List<BookingDto> bookings = bookingService.getUserBookings(1L, "future", filter, page);
 
         assertThat(bookings).asList()
-                .hasSize(3);
-        verify(userRepository, times(1)).findById(anyLong());
-        verify(bookingRepository, times(1)).findAllByBookerAndFuture(any(User.class), any(LocalDateTime.class), any(Pageable.class));
+                .isEmpty();
+        verify(userService, times(1)).getUserById(1L);
+        verify(userRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void shouldGetExceptionWithGetUserBookingsWithUnknownState() {
+        assertThrows(ValidationException.class, () -> bookingService.getUserBookings(1L, "unknown", filter, page));
+        verify(bookingRepository, never()).findBookings(any(BookingCriteria.class), any(Pageable.class));
     }
 
     @Test
-    void shouldGetUserBookingsWithWaiting() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user));
-        when(bookingRepository.findAllByBookerAndStatus(any(User.class), any(StatusType.class), any(Pageable.class)))
-                .thenReturn(bookingsPage);
+    void shouldGetUserBookingsWithCurrent() {
+        when(bookingRepository.findBookings(any(BookingCriteria.class), any(Pageable.class)))
+                .thenReturn(bookings);
 
-        List<BookingDto> bookings = bookingService.getUserBookings(1L, "WAITING", page);
+        List<BookingDto> bookings = bookingService.getUserBookings(1L, "cuRRenT", filter, page);
 
         assertThat(bookings).asList()
                 .hasSize(3);
-        verify(userRepository, times(1)).findById(anyLong());
-        verify(bookingRepository, times(1)).findAllByBookerAndStatus(any(User.class), any(StatusType.class), any(Pageable.class));
+        assertThat(captureCriteria())
+                .hasFieldOrPropertyWithValue("role", BookingCriteria.Role.BOOKER)
+                .hasFieldOrPropertyWithValue("state", StateType.CURRENT);
     }
 
     @Test
     void shouldGetUserBookingsWithReject() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user));
-        when(bookingRepository.findAllByBookerAndStatus(any(User.class), any(StatusType.class), any(Pageable.class)))
-                .thenReturn(bookingsPage);
+        when(bookingRepository.findBookings(any(BookingCriteria.class), any(Pageable.class)))
+                .thenReturn(bookings);
 
-        List<BookingDto> bookings = bookingService.getUserBookings(1L, "rejected", page);
+        bookingService.getUserBookings(1L, "rejected", filter, page);
 
-        assertThat(bookings).asList()
-                .hasSize(3);
-        verify(userRepository, times(1)).findById(anyLong());
-        verify(bookingRepository, times(1)).findAllByBookerAndStatus(any(User.class), any(StatusType.class), any(Pageable.class));
+        assertThat(captureCriteria())
+                .hasFieldOrPropertyWithValue("role", BookingCriteria.Role.BOOKER)
+                .hasFieldOrPropertyWithValue("state", StateType.REJECTED);
     }
 
     @Test
     void shouldGetOwnerBookingsWithAll() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user));
-        when(bookingRepository.findAllByOwner(any(User.class), any(Pageable.class)))
-                .thenReturn(bookingsPage);
+        when(bookingRepository.findBookings(any(BookingCriteria.class), any(Pageable.class)))
+                .thenReturn(bookings);
 
-        List<BookingDto> bookings = bookingService.getOwnerBookings(1L, "aLl", page);
+        List<BookingDto> bookings = bookingService.getOwnerBookings(1L, "aLl", filter, page);
 
         assertThat(bookings).asList()
                 .hasSize(3);
-        verify(userRepository, times(1)).findById(anyLong());
-        verify(bookingRepository, times(1)).findAllByOwner(any(User.class), any(Pageable.class));
+        assertThat(captureCriteria())
+                .hasFieldOrPropertyWithValue("role", BookingCriteria.Role.OWNER)
+                .hasFieldOrPropertyWithValue("userId", 1L)
+                .hasFieldOrPropertyWithValue("state", StateType.ALL);
+        verify(userService, never()).getUserById(anyLong());
     }
 
     @Test
     void shouldGetExceptionWithOwnerBookingsWithAll() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.empty());
-        when(bookingRepository.findAllByBooker(any(User.class), any(Pageable.class)))
-                .thenReturn(bookingsPage);
+        when(userService.getUserById(anyLong()))
+                .thenThrow(new EntityNotFoundException("Пользователь не найден"));
+        when(bookingRepository.findBookings(any(BookingCriteria.class), any(Pageable.class)))
+                .thenReturn(List.of());
 
-        assertThrows(EntityNotFoundException.class, () -> bookingService.getOwnerBookings(1L, "aLl", page));
-        verify(userRepository, times(1)).findById(anyLong());
-        verify(bookingRepository, never()).findAllByBooker(any(User.class), any(Pageable.class));
+        assertThrows(EntityNotFoundException.class, () -> bookingService.getOwnerBookings(1L, "aLl", filter, page));
+        verify(userService, times(1)).getUserById(anyLong());
+        verify(bookingRepository, times(1)).findBookings(any(BookingCriteria.class), any(Pageable.class));
     }
 
     @Test
-    void shouldGetOwnerBookingsWithCurrent() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user));
-        when(bookingRepository.findAllByOwnerAndCurrent(any(User.class), any(LocalDateTime.class), any(Pageable.class)))
-                .thenReturn(bookingsPage);
+    void shouldGetOwnerBookingsWithPast() {
+        when(bookingRepository.findBookings(any(BookingCriteria.class), any(Pageable.class)))
+                .thenReturn(bookings);
 
-        List<BookingDto> bookings = bookingService.getOwnerBookings(1L, "cuRRenT", page);
+        bookingService.getOwnerBookings(1L, "pAST", filter, page);
 
-        assertThat(bookings).asList()
-                .hasSize(3);
-        verify(userRepository, times(1)).findById(anyLong());
-        verify(bookingRepository, times(1)).findAllByOwnerAndCurrent(any(User.class), any(LocalDateTime.class), any(Pageable.class));
+        assertThat(captureCriteria())
+                .hasFieldOrPropertyWithValue("role", BookingCriteria.Role.OWNER)
+                .hasFieldOrPropertyWithValue("state", StateType.PAST);
     }
 
     @Test
-    void shouldGetOwnerBookingsWithPast() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user));
-        when(bookingRepository.findAllByOwnerAndPast(any(User.class), any(LocalDateTime.class), any(Pageable.class)))
-                .thenReturn(bookingsPage);
+    void shouldGetOwnerBookingsWithWaitingForItemAfterCursor() {
+        BookingFilter itemFilter = BookingFilter.builder()
+                .itemId(1L)
+                .start(start)
+                .end(end)
+                .after(BookingCursor.builder()
+                        .start(start)
+                        .id(10L)
+                        .build())
+                .build();
+        when(bookingRepository.findBookings(any(BookingCriteria.class), any(Pageable.class)))
+                .thenReturn(bookings);
 
-        List<BookingDto> bookings = bookingService.getOwnerBookings(1L, "pAST", page);
+        bookingService.getOwnerBookings(1L, "WAITING", itemFilter, page);
 
-        assertThat(bookings).asList()
-                .hasSize(3);
-        verify(userRepository, times(1)).findById(anyLong());
-        verify(bookingRepository, times(1)).findAllByOwnerAndPast(any(User.class), any(LocalDateTime.class), any(Pageable.class));
+        assertThat(captureCriteria())
+                .hasFieldOrPropertyWithValue("role", BookingCriteria.Role.OWNER)
+                .hasFieldOrPropertyWithValue("state", StateType.WAITING)
+                .hasFieldOrPropertyWithValue("filter", itemFilter);
     }
 
     @Test
-    void shouldGetOwnerBookingsWithFuture() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user));
-        when(bookingRepository.findAllByOwnerAndFuture(any(User.class), any(LocalDateTime.class), any(Pageable.class)))
-                .thenReturn(bookingsPage);
-
-        List<BookingDto> bookings = bookingService.getOwnerBookings(1L, "FUTURE", page);
+    void shouldGetExceptionWithGetOwnerBookingsWithWrongRange() {
+        BookingFilter wrongFilter = BookingFilter.builder()
+                .start(end)
+                .end(start)
+                .build();
 
-        assertThat(bookings).asList()
-                .hasSize(3);
-        verify(userRepository, times(1)).findById(anyLong());
-        verify(bookingRepository, times(1)).findAllByOwnerAndFuture(any(User.class), any(LocalDateTime.class), any(Pageable.class));
+        assertThrows(ValidationException.class, () -> bookingService.getOwnerBookings(1L, "ALL", wrongFilter, page));
+        verify(bookingRepository, never()).findBookings(any(BookingCriteria.class), any(Pageable.class));
     }
 
-    @Test
-    void shouldGetOwnerBookingsWithWaiting() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user));
-        when(bookingRepository.findAllByOwnerAndStatus(any(User.class), any(StatusType.class), any(Pageable.class)))
-                .thenReturn(bookingsPage);
-
-        List<BookingDto> bookings = bookingService.getOwnerBookings(1L, "WAITING", page);
+    private BookingCriteria captureCriteria() {
+        ArgumentCaptor<BookingCriteria> captor = ArgumentCaptor.forClass(BookingCriteria.class);
+        verify(bookingRepository, times(1)).findBookings(captor.capture(), eq(page));
 
-        assertThat(bookings).asList()
-                .hasSize(3);
-        verify(userRepository, times(1)).findById(anyLong());
-        verify(bookingRepository, times(1)).findAllByOwnerAndStatus(any(User.class), any(StatusType.class), any(Pageable.class));
+        return captor.getValue();
     }
 
     @Test
-    void shouldGetOwnerBookingsWithReject() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.ofNullable(user));
-        when(bookingRepository.findAllByOwnerAndStatus(any(User.class), any(StatusType.class), any(Pageable.class)))
-                .thenReturn(bookingsPage);
-
-        List<BookingDto> bookings = bookingService.getOwnerBookings(1L, "rejected", page);
+    void shouldSubscribeToBookingStream() {
+        SseEmitter emitter = new SseEmitter();
+        when(streamHub.subscribe(anyLong()))
+                .thenReturn(emitter);
 
-        assertThat(bookings).asList()
-                .hasSize(3);
-        verify(userRepository, times(1)).findById(anyLong());
-        verify(bookingRepository, times(1)).findAllByOwnerAndStatus(any(User.class), any(StatusType.class), any(Pageable.class));
+        assertThat(bookingService.streamBookings(1L)).isSameAs(emitter);
+        verify(userService, times(1)).getUserById(1L);
+        verify(streamHub, times(1)).subscribe(1L);
     }
 
-    private Page<Booking> listBookingToPage() {
-        return new PageImpl<>(bookings.subList(0, 3),
-                PageRequest.of(0, 3),
-                bookings.size());
+    @Test
+    void shouldGetExceptionWithStreamBookingsNoFoundUser() {
+        when(userService.getUserById(anyLong()))
+                .thenThrow(new EntityNotFoundException("Пользователь с ID = 99 не найден"));
+
+        assertThrows(EntityNotFoundException.class, () -> bookingService.streamBookings(99L));
+        verify(streamHub, never()).subscribe(anyLong());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,82 @@
+package ru.practicum.shareit.booking.dao;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dal.BookingService;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.CreatingBookingDto;
+import ru.practicum.shareit.item.dal.ItemService;
+import ru.practicum.shareit.item.dto.item.CreatingItemDto;
+import ru.practicum.shareit.user.dal.UserService;
+import ru.practicum.shareit.user.dto.CreatingUserDto;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Transactional
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:batch-inserts",
+        "spring.jpa.properties.hibernate.generate_statistics=true"})
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class BookingBatchInsertTest {
+    private static final int BOOKINGS = 40;
+
+    private final BookingService bookingService;
+    private final UserService userService;
+    private final ItemService itemService;
+    private final EntityManager entityManager;
+
+    @BeforeEach
+    void initialize() {
+        userService.addUser(CreatingUserDto.builder()
+                .name("owner")
+                .email("owner@ya.ru")
+                .build());
+        userService.addUser(CreatingUserDto.builder()
+                .name("booker")
+                .email("booker@ya.ru")
+                .build());
+        itemService.addItem(1L, CreatingItemDto.builder()
+                .name("item")
+                .description("description")
+                .available(true)
+                .build());
+        entityManager.flush();
+    }
+
+    @Test
+    void shouldInsertBookingsInJdbcBatches() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        List<CreatingBookingDto> batch = IntStream.range(0, BOOKINGS)
+                .mapToObj(i -> CreatingBookingDto.builder()
+                        .itemId(1L)
+                        .start(start.plusDays(i))
+                        .end(start.plusDays(i).plusHours(1))
+                        .build())
+                .collect(Collectors.toList());
+        Statistics statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.clear();
+
+        List<BookingBatchResultDto> results = bookingService.addBookings(2L, batch);
+        entityManager.flush();
+
+        assertThat(results).allMatch(result -> result.getError() == null);
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(2L * BOOKINGS);
+        assertThat(statistics.getPrepareStatementCount()).isLessThan(BOOKINGS / 4);
+    }
+}
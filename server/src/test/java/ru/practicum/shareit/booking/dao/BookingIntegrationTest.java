@@ -6,14 +6,19 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.StatusType;
 import ru.practicum.shareit.booking.dal.BookingService;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingFilter;
 import ru.practicum.shareit.booking.dto.CreatingBookingDto;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingEvent;
+import ru.practicum.shareit.booking.model.BookingEventType;
+import ru.practicum.shareit.exception.NotAvailableBookingException;
 import ru.practicum.shareit.item.dal.ItemService;
 import ru.practicum.shareit.item.dto.item.CreatingItemDto;
 import ru.practicum.shareit.user.dal.UserService;
@@ -21,9 +26,11 @@ import ru.practicum.shareit.user.dto.CreatingUserDto;
 
 import javax.persistence.EntityManager;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @Transactional
 @SpringBootTest
@@ -50,8 +57,8 @@ public class BookingIntegrationTest {
             .build();
     private final CreatingBookingDto bookingDto = CreatingBookingDto.builder()
             .itemId(1L)
-            .start(LocalDateTime.now().minusDays(2))
-            .end(LocalDateTime.now().minusDays(1))
+            .start(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS).minusDays(2))
+            .end(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS).minusDays(1))
             .build();
     private final CreatingItemDto itemDto2 = CreatingItemDto.builder()
             .name("item2")
@@ -60,10 +67,11 @@ public class BookingIntegrationTest {
             .build();
     private final CreatingBookingDto bookingDto2 = CreatingBookingDto.builder()
             .itemId(2L)
-            .start(LocalDateTime.now().minusDays(2))
-            .end(LocalDateTime.now().minusDays(1))
+            .start(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS).minusDays(2))
+            .end(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS).minusDays(1))
             .build();
-    private final PageRequest page = PageRequest.of(0, 5, Sort.by("dateStart").descending());
+    private final PageRequest page = PageRequest.of(0, 5);
+    private final BookingFilter filter = BookingFilter.builder().build();
 
     @BeforeEach
     void initialize() {
@@ -89,9 +97,46 @@ public class BookingIntegrationTest {
         assertThat(booking)
                 .hasFieldOrPropertyWithValue("id", 1L)
                 .hasFieldOrPropertyWithValue("booker.id", 2L)
+                .hasFieldOrPropertyWithValue("ownerId", 1L)
                 .hasFieldOrPropertyWithValue("status", StatusType.WAITING);
     }
 
+    @Test
+    void shouldCreateBookingsInBatch() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        List<CreatingBookingDto> batch = List.of(
+                CreatingBookingDto.builder()
+                        .itemId(1L)
+                        .start(start)
+                        .end(start.plusDays(1))
+                        .build(),
+                CreatingBookingDto.builder()
+                        .itemId(3L)
+                        .start(start)
+                        .end(start.plusDays(1))
+                        .build(),
+                CreatingBookingDto.builder()
+                        .itemId(2L)
+                        .start(start.plusDays(2))
+                        .end(start.plusDays(3))
+                        .build());
+
+        List<BookingBatchResultDto> results = bookingService.addBookings(2L, batch);
+        entityManager.flush();
+
+        assertThat(results.get(0).getBooking())
+                .hasFieldOrPropertyWithValue("id", 3L)
+                .hasFieldOrPropertyWithValue("status", StatusType.WAITING);
+        assertThat(results.get(1).getError()).isEqualTo("Вещь с ID = 3 не найдена");
+        assertThat(results.get(2).getBooking())
+                .hasFieldOrPropertyWithValue("id", 4L)
+                .hasFieldOrPropertyWithValue("item.id", 2L);
+        assertThat(bookingService.getBooking(2L, 4L))
+                .hasFieldOrPropertyWithValue("booker.id", 2L);
+        assertThat(entityManager.find(Booking.class, 4L))
+                .hasFieldOrPropertyWithValue("ownerId", 1L);
+    }
+
     @Test
     void shouldApproveBooking() {
         bookingService.approveBooking(1L, 1L, true);
@@ -106,6 +151,77 @@ public class BookingIntegrationTest {
                 .hasFieldOrPropertyWithValue("status", StatusType.APPROVED);
     }
 
+    @Test
+    void shouldNotApproveOverlappingBooking() {
+        BookingDto overlapping = bookingService.addBooking(2L, CreatingBookingDto.builder()
+                .itemId(1L)
+                .start(bookingDto.getStart().plusHours(1))
+                .end(bookingDto.getEnd().plusHours(1))
+                .build());
+        bookingService.approveBooking(1L, 1L, true);
+
+        assertThrows(NotAvailableBookingException.class, () -> bookingService.approveBooking(1L, overlapping.getId(), true));
+        assertThrows(NotAvailableBookingException.class, () -> bookingService.addBooking(2L, CreatingBookingDto.builder()
+                .itemId(1L)
+                .start(bookingDto.getStart().minusHours(1))
+                .end(bookingDto.getStart().plusHours(1))
+                .build()));
+    }
+
+    @Test
+    void shouldNotCreateBookingInsideApprovedWhenApprovedBookingsOverlap() {
+        BookingDto nested = bookingService.addBooking(2L, CreatingBookingDto.builder()
+                .itemId(1L)
+                .start(bookingDto.getStart().plusHours(1))
+                .end(bookingDto.getStart().plusHours(2))
+                .build());
+        bookingService.approveBooking(1L, 1L, true);
+        entityManager.createNativeQuery("UPDATE bookings SET status = 'APPROVED' WHERE id = :id")
+                .setParameter("id", nested.getId())
+                .executeUpdate();
+
+        assertThrows(NotAvailableBookingException.class, () -> bookingService.addBooking(2L, CreatingBookingDto.builder()
+                .itemId(1L)
+                .start(bookingDto.getStart().plusHours(5))
+                .end(bookingDto.getStart().plusHours(6))
+                .build()));
+    }
+
+    @Test
+    void shouldApproveAdjacentBooking() {
+        bookingService.approveBooking(1L, 1L, true);
+        BookingDto adjacent = bookingService.addBooking(2L, CreatingBookingDto.builder()
+                .itemId(1L)
+                .start(bookingDto.getEnd())
+                .end(bookingDto.getEnd().plusHours(1))
+                .build());
+
+        assertThat(bookingService.approveBooking(1L, adjacent.getId(), true))
+                .hasFieldOrPropertyWithValue("status", StatusType.APPROVED);
+    }
+
+    @Test
+    void shouldRecordBookingEventsInOutbox() {
+        bookingService.approveBooking(1L, 1L, true);
+        bookingService.approveBooking(1L, 2L, false);
+
+        List<BookingEvent> events = entityManager.createQuery("SELECT e FROM BookingEvent AS e ORDER BY e.id", BookingEvent.class)
+                .getResultList();
+
+        assertThat(events.size()).isEqualTo(4);
+        assertThat(events.get(0))
+                .hasFieldOrPropertyWithValue("bookingId", 1L)
+                .hasFieldOrPropertyWithValue("type", BookingEventType.CREATED);
+        assertThat(events.get(2))
+                .hasFieldOrPropertyWithValue("bookingId", 1L)
+                .hasFieldOrPropertyWithValue("itemId", 1L)
+                .hasFieldOrPropertyWithValue("bookerId", 2L)
+                .hasFieldOrPropertyWithValue("type", BookingEventType.APPROVED);
+        assertThat(events.get(3))
+                .hasFieldOrPropertyWithValue("bookingId", 2L)
+                .hasFieldOrPropertyWithValue("type", BookingEventType.REJECTED);
+    }
+
     @Test
     void shouldGetBookingByUserOwner() {
         bookingService.approveBooking(1L, 1L, true);
@@ -120,20 +236,119 @@ public class BookingIntegrationTest {
 
     @Test
     void shouldGetUserBookings() {
-        List<BookingDto> bookings = bookingService.getUserBookings(1L, "all", page);
+        List<BookingDto> bookings = bookingService.getUserBookings(1L, "all", filter, page);
 
         assertThat(bookings).asList().isEmpty();
     }
 
     @Test
     void shouldGetOwnerBookings() {
-        List<BookingDto> bookings = bookingService.getOwnerBookings(1L, "all", page);
+        List<BookingDto> bookings = bookingService.getOwnerBookings(1L, "all", filter, page);
 
         assertThat(bookings).asList()
                 .isNotEmpty()
                 .hasSize(2);
     }
 
+    @Test
+    void shouldGetOwnerBookingsAfterCursor() {
+        entityManager.flush();
+        entityManager.clear();
+
+        BookingCursor cursor = BookingCursor.builder()
+                .start(LocalDateTime.now())
+                .id(Long.MAX_VALUE)
+                .build();
+
+        List<BookingDto> firstPage = bookingService.getOwnerBookings(1L, "all", afterFilter(cursor), firstOf(1));
+
+        assertThat(firstPage).asList()
+                .hasSize(1);
+
+        BookingDto last = firstPage.get(0);
+        List<BookingDto> secondPage = bookingService.getOwnerBookings(1L, "all", afterFilter(BookingCursor.builder()
+                .start(last.getStart())
+                .id(last.getId())
+                .build()), firstOf(1));
+
+        assertThat(secondPage).asList()
+                .hasSize(1);
+        assertThat(secondPage.get(0).getId()).isNotEqualTo(last.getId());
+        assertThat(secondPage.get(0).getStart()).isBeforeOrEqualTo(last.getStart());
+
+        BookingDto previous = secondPage.get(0);
+        List<BookingDto> thirdPage = bookingService.getOwnerBookings(1L, "all", afterFilter(BookingCursor.builder()
+                .start(previous.getStart())
+                .id(previous.getId())
+                .build()), firstOf(1));
+
+        assertThat(thirdPage).asList()
+                .isEmpty();
+    }
+
+    @Test
+    void shouldGetUserBookingsAfterCursorWithSameStart() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1).withNano(0);
+        for (int i = 0; i < 3; i++) {
+            bookingService.addBooking(2L, CreatingBookingDto.builder()
+                    .itemId(1L)
+                    .start(start)
+                    .end(start.plusDays(1))
+                    .build());
+        }
+        BookingCursor cursor = BookingCursor.builder()
+                .start(start)
+                .id(4L)
+                .build();
+
+        List<BookingDto> bookings = bookingService.getUserBookings(2L, "future", afterFilter(cursor), page);
+
+        assertThat(bookings).asList()
+                .hasSize(1);
+        assertThat(bookings.get(0).getId()).isEqualTo(3L);
+    }
+
+    @Test
+    void shouldGetOwnerBookingsForItemInRange() {
+        bookingService.addBooking(2L, CreatingBookingDto.builder()
+                .itemId(2L)
+                .start(LocalDateTime.now().plusDays(10))
+                .end(LocalDateTime.now().plusDays(11))
+                .build());
+        BookingFilter itemFilter = BookingFilter.builder()
+                .itemId(2L)
+                .start(LocalDateTime.now().plusDays(5))
+                .end(LocalDateTime.now().plusDays(20))
+                .build();
+
+        List<BookingDto> bookings = bookingService.getOwnerBookings(1L, "waiting", itemFilter, page);
+
+        assertThat(bookings).asList()
+                .hasSize(1);
+        assertThat(bookings.get(0))
+                .hasFieldOrPropertyWithValue("id", 3L)
+                .hasFieldOrPropertyWithValue("item.id", 2L);
+    }
+
+    @Test
+    void shouldGetOwnerBookingsWithOffset() {
+        List<BookingDto> bookings = bookingService.getOwnerBookings(1L, "past", filter, PageRequest.of(1, 1));
+
+        assertThat(bookings).asList()
+                .hasSize(1);
+        assertThat(bookings.get(0).getId()).isEqualTo(1L);
+    }
+
+    private BookingFilter afterFilter(BookingCursor cursor) {
+        return BookingFilter.builder()
+                .after(cursor)
+                .build();
+    }
+
+    private PageRequest firstOf(int size) {
+        return PageRequest.of(0, size);
+    }
+
     private String getQueryGetBookingById() {
         return "SELECT b " +
                 " FROM Booking AS b" +
@@ -0,0 +1,168 @@
+package ru.practicum.shareit.booking.dao;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.StateType;
+import ru.practicum.shareit.booking.dal.BookingService;
+import ru.practicum.shareit.booking.dto.BookingFilter;
+import ru.practicum.shareit.booking.dto.CreatingBookingDto;
+import ru.practicum.shareit.item.dal.ItemService;
+import ru.practicum.shareit.item.dto.item.CreatingItemDto;
+import ru.practicum.shareit.user.dal.UserService;
+import ru.practicum.shareit.user.dto.CreatingUserDto;
+
+import javax.persistence.EntityManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Transactional
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:query-plans",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+                "ru.practicum.shareit.booking.dao.RecordingStatementInspector"})
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class BookingQueryPlanTest {
+    private final BookingService bookingService;
+    private final UserService userService;
+    private final ItemService itemService;
+    private final EntityManager entityManager;
+
+    private final PageRequest page = PageRequest.of(0, 5);
+    private final BookingFilter filter = BookingFilter.builder().build();
+
+    @BeforeEach
+    void initialize() {
+        userService.addUser(CreatingUserDto.builder()
+                .name("owner")
+                .email("owner@ya.ru")
+                .build());
+        userService.addUser(CreatingUserDto.builder()
+                .name("booker")
+                .email("booker@ya.ru")
+                .build());
+        itemService.addItem(1L, CreatingItemDto.builder()
+                .name("item")
+                .description("description")
+                .available(true)
+                .build());
+        bookingService.addBooking(2L, CreatingBookingDto.builder()
+                .itemId(1L)
+                .start(LocalDateTime.now().minusDays(2))
+                .end(LocalDateTime.now().minusDays(1))
+                .build());
+        entityManager.flush();
+    }
+
+    @ParameterizedTest
+    @EnumSource(StateType.class)
+    void shouldUseIndexesForBookerBookings(StateType state) {
+        assertNoTableScans(userId -> bookingService.getUserBookings(userId, state.name(), filter, page), 2L);
+    }
+
+    @ParameterizedTest
+    @EnumSource(StateType.class)
+    void shouldUseIndexesForOwnerBookings(StateType state) {
+        assertNoTableScans(userId -> bookingService.getOwnerBookings(userId, state.name(), filter, page), 1L);
+    }
+
+    @ParameterizedTest
+    @EnumSource(StateType.class)
+    void shouldLookUpOwnerBookingsByBookingsOwnerId(StateType state) {
+        entityManager.clear();
+        RecordingStatementInspector.clear();
+
+        bookingService.getOwnerBookings(1L, state.name(), filter, page);
+
+        List<String> bookingQueries = RecordingStatementInspector.getStatements().stream()
+                .filter(sql -> sql.toLowerCase().contains("bookings"))
+                .collect(Collectors.toList());
+
+        assertThat(bookingQueries).hasSize(1);
+        assertThat(explain(bookingQueries.get(0)))
+                .as(bookingQueries.get(0))
+                .containsPattern("\"BOOKINGS\" \"\\w+\"\\s+/\\* PUBLIC\\.\\w+: OWNER_ID = \\?1");
+    }
+
+    @ParameterizedTest
+    @EnumSource(StateType.class)
+    void shouldListBookerBookingsInSingleStatement(StateType state) {
+        assertSingleBookingStatement(userId -> bookingService.getUserBookings(userId, state.name(), filter, page), 2L);
+    }
+
+    @ParameterizedTest
+    @EnumSource(StateType.class)
+    void shouldListOwnerBookingsInSingleStatement(StateType state) {
+        assertSingleBookingStatement(userId -> bookingService.getOwnerBookings(userId, state.name(), filter, page), 1L);
+    }
+
+    private void assertSingleBookingStatement(Consumer<Long> listing, long userId) {
+        entityManager.clear();
+        RecordingStatementInspector.clear();
+
+        listing.accept(userId);
+
+        List<String> bookingQueries = RecordingStatementInspector.getStatements().stream()
+                .filter(sql -> sql.toLowerCase().contains("bookings"))
+                .collect(Collectors.toList());
+
+        assertThat(bookingQueries).hasSize(1);
+        assertThat(bookingQueries.get(0))
+                .doesNotContainIgnoringCase("count(")
+                .doesNotContain("'");
+    }
+
+    private void assertNoTableScans(Consumer<Long> listing, long userId) {
+        entityManager.clear();
+        RecordingStatementInspector.clear();
+
+        listing.accept(userId);
+
+        List<String> bookingQueries = RecordingStatementInspector.getStatements().stream()
+                .filter(sql -> sql.toLowerCase().contains("bookings"))
+                .collect(Collectors.toList());
+
+        assertThat(bookingQueries).isNotEmpty();
+        for (String sql : bookingQueries) {
+            assertThat(explain(sql))
+                    .as(sql)
+                    .doesNotContainIgnoringCase("tableScan");
+        }
+    }
+
+    private String explain(String sql) {
+        List<String> plan = new ArrayList<>();
+
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+                int parameters = statement.getParameterMetaData().getParameterCount();
+
+                for (int i = 1; i <= parameters; i++) {
+                    statement.setObject(i, null);
+                }
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        plan.add(resultSet.getString(1));
+                    }
+                }
+            }
+        });
+
+        return String.join("\n", plan);
+    }
+}
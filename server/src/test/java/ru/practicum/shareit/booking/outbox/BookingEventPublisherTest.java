@@ -0,0 +1,84 @@
+package ru.practicum.shareit.booking.outbox;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.practicum.shareit.booking.dao.BookingEventRepository;
+import ru.practicum.shareit.booking.model.BookingEvent;
+import ru.practicum.shareit.booking.model.BookingEventType;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class BookingEventPublisherTest {
+    private BookingEventRepository eventRepository;
+    private BookingEventSink sink;
+    private BookingEventPublisher publisher;
+
+    private final BookingEvent created = event(1L, BookingEventType.CREATED);
+    private final BookingEvent approved = event(2L, BookingEventType.APPROVED);
+    private final BookingEvent rejected = event(3L, BookingEventType.REJECTED);
+
+    @BeforeEach
+    void initialize() {
+        eventRepository = Mockito.mock(BookingEventRepository.class);
+        sink = Mockito.mock(BookingEventSink.class);
+        publisher = new BookingEventPublisher(eventRepository, sink, Mockito.mock(PlatformTransactionManager.class), 2);
+    }
+
+    @Test
+    void shouldDrainOutboxInBatches() throws IOException {
+        when(eventRepository.findAllByOrderByIdAsc(any(Pageable.class)))
+                .thenReturn(List.of(created, approved))
+                .thenReturn(List.of(rejected));
+
+        publisher.publishPending();
+
+        verify(sink, times(1)).publish(List.of(created, approved));
+        verify(sink, times(1)).publish(List.of(rejected));
+        verify(eventRepository, times(1)).deleteAllByIdInBatch(List.of(1L, 2L));
+        verify(eventRepository, times(1)).deleteAllByIdInBatch(List.of(3L));
+    }
+
+    @Test
+    void shouldSkipEmptyOutbox() throws IOException {
+        when(eventRepository.findAllByOrderByIdAsc(any(Pageable.class)))
+                .thenReturn(Collections.emptyList());
+
+        publisher.publishPending();
+
+        verify(sink, never()).publish(anyList());
+        verify(eventRepository, never()).deleteAllByIdInBatch(anyList());
+    }
+
+    @Test
+    void shouldKeepEventsWhenSinkFails() throws IOException {
+        when(eventRepository.findAllByOrderByIdAsc(any(Pageable.class)))
+                .thenReturn(List.of(created));
+        doThrow(new IOException("disk full"))
+                .when(sink).publish(anyList());
+
+        publisher.publishPending();
+
+        verify(eventRepository, never()).deleteAllByIdInBatch(anyList());
+    }
+
+    private static BookingEvent event(long id, BookingEventType type) {
+        return BookingEvent.builder()
+                .id(id)
+                .bookingId(id)
+                .itemId(1L)
+                .bookerId(2L)
+                .type(type)
+                .created(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,89 @@
+package ru.practicum.shareit.booking.outbox;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.practicum.shareit.booking.model.BookingEvent;
+import ru.practicum.shareit.booking.model.BookingEventType;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SegmentFileBookingEventSinkTest {
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void shouldAppendEventsAsJsonLines() throws Exception {
+        SegmentFileBookingEventSink sink = new SegmentFileBookingEventSink(objectMapper, directory, 1024 * 1024);
+
+        sink.publish(List.of(event(1L, BookingEventType.CREATED), event(2L, BookingEventType.APPROVED)));
+        sink.publish(List.of(event(3L, BookingEventType.REJECTED)));
+
+        List<Path> segments = segments();
+        assertThat(segments).hasSize(1);
+
+        List<String> lines = Files.readAllLines(segments.get(0));
+        assertThat(lines).hasSize(3);
+
+        JsonNode first = objectMapper.readTree(lines.get(0));
+        assertThat(first.get("id").asLong()).isEqualTo(1L);
+        assertThat(first.get("bookingId").asLong()).isEqualTo(10L);
+        assertThat(first.get("type").asText()).isEqualTo("CREATED");
+        assertThat(objectMapper.readTree(lines.get(2)).get("type").asText()).isEqualTo("REJECTED");
+    }
+
+    @Test
+    void shouldRollOverToNewSegment() throws Exception {
+        SegmentFileBookingEventSink sink = new SegmentFileBookingEventSink(objectMapper, directory, 1);
+
+        sink.publish(List.of(event(1L, BookingEventType.CREATED)));
+        sink.publish(List.of(event(2L, BookingEventType.APPROVED)));
+
+        assertThat(segments())
+                .extracting(segment -> segment.getFileName().toString())
+                .containsExactly("booking-events-00000000000000000001.log", "booking-events-00000000000000000002.log");
+    }
+
+    @Test
+    void shouldContinueLastSegmentAfterRestart() throws Exception {
+        new SegmentFileBookingEventSink(objectMapper, directory, 1024 * 1024)
+                .publish(List.of(event(1L, BookingEventType.CREATED)));
+        new SegmentFileBookingEventSink(objectMapper, directory, 1024 * 1024)
+                .publish(List.of(event(2L, BookingEventType.APPROVED)));
+
+        List<Path> segments = segments();
+        assertThat(segments).hasSize(1);
+        assertThat(Files.readAllLines(segments.get(0))).hasSize(2);
+    }
+
+    private List<Path> segments() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().collect(Collectors.toList());
+        }
+    }
+
+    private BookingEvent event(long id, BookingEventType type) {
+        return BookingEvent.builder()
+                .id(id)
+                .bookingId(10L)
+                .itemId(20L)
+                .bookerId(30L)
+                .type(type)
+                .created(LocalDateTime.of(2030, 1, 1, 0, 0))
+                .build();
+    }
+}
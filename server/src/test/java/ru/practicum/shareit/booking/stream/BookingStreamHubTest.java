@@ -0,0 +1,89 @@
+package ru.practicum.shareit.booking.stream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.model.BookingEventType;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BookingStreamHubTest {
+    private final List<Runnable> pending = new ArrayList<>();
+    private final BookingDto booking = BookingDto.builder()
+            .id(1L)
+            .build();
+
+    @Test
+    void shouldRejectSubscriptionsOverLimit() {
+        BookingStreamHub hub = new BookingStreamHub(pending::add, 4, 2, Duration.ofMinutes(1), Duration.ofSeconds(10));
+
+        hub.subscribe(1L);
+        hub.subscribe(2L);
+
+        assertThrows(ResponseStatusException.class, () -> hub.subscribe(3L));
+        assertThat(hub.getSubscriberCount()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldScheduleSingleDrainPerSubscriber() {
+        BookingStreamHub hub = new BookingStreamHub(pending::add, 4, 10, Duration.ofMinutes(1), Duration.ofSeconds(10));
+        hub.subscribe(1L);
+        hub.subscribe(2L);
+
+        hub.publish(1L, 2L, BookingEventType.CREATED, booking);
+        hub.publish(1L, 2L, BookingEventType.APPROVED, booking);
+
+        assertThat(pending).hasSize(2);
+
+        pending.forEach(Runnable::run);
+
+        assertThat(hub.getSubscriberCount()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldNotDeliverToOtherUsers() {
+        BookingStreamHub hub = new BookingStreamHub(pending::add, 4, 10, Duration.ofMinutes(1), Duration.ofSeconds(10));
+        hub.subscribe(3L);
+
+        hub.publish(1L, 2L, BookingEventType.CREATED, booking);
+
+        assertThat(pending).isEmpty();
+    }
+
+    @Test
+    void shouldCloseSlowSubscriber() {
+        BookingStreamHub hub = new BookingStreamHub(pending::add, 2, 10, Duration.ofMinutes(1), Duration.ofSeconds(10));
+        hub.subscribe(1L);
+        hub.subscribe(2L);
+
+        hub.publish(1L, 1L, BookingEventType.CREATED, booking);
+        hub.publish(1L, 1L, BookingEventType.APPROVED, booking);
+        hub.publish(1L, 1L, BookingEventType.REJECTED, booking);
+
+        assertThat(hub.getSubscriberCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldCompleteOverflowedSubscriberOnDispatcher() throws IOException {
+        BookingStreamHub hub = new BookingStreamHub(pending::add, 1, 10, Duration.ofMinutes(1), Duration.ofSeconds(10));
+        SseEmitter emitter = hub.subscribe(1L);
+
+        hub.publish(1L, 1L, BookingEventType.CREATED, booking);
+        hub.publish(1L, 1L, BookingEventType.APPROVED, booking);
+
+        assertThat(hub.getSubscriberCount()).isZero();
+        assertThat(pending).hasSize(1);
+
+        emitter.send(SseEmitter.event().comment("still open"));
+        pending.forEach(Runnable::run);
+
+        assertThrows(IllegalStateException.class, () -> emitter.send(SseEmitter.event().comment("completed")));
+    }
+}
@@ -0,0 +1,74 @@
+package ru.practicum.shareit.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static ru.practicum.shareit.util.Constant.HEADER_USER_ID;
+
+class SqlTraceFilterTest {
+    private final LoggerContext loggerContext = new LoggerContext();
+    private final SqlTraceTurboFilter turboFilter = new SqlTraceTurboFilter();
+
+    private SqlTraceEndpoint endpoint;
+    private SqlTraceFilter filter;
+
+    @BeforeEach
+    void initialize() {
+        endpoint = new SqlTraceEndpoint();
+        filter = new SqlTraceFilter(endpoint);
+    }
+
+    @Test
+    void shouldAcceptSqlLoggingOnlyForTracedUser() throws Exception {
+        endpoint.enable(1L, null);
+
+        assertThat(decideSqlLogging(1L)).containsExactly(FilterReply.ACCEPT, FilterReply.ACCEPT, FilterReply.NEUTRAL);
+        assertThat(decideSqlLogging(2L)).containsOnly(FilterReply.NEUTRAL);
+        assertThat(MDC.get(SqlTraceTurboFilter.MDC_KEY)).isNull();
+    }
+
+    @Test
+    void shouldStopTracingAfterDisable() throws Exception {
+        endpoint.enable(1L, 1.0);
+        endpoint.disable();
+
+        assertThat(decideSqlLogging(1L)).containsOnly(FilterReply.NEUTRAL);
+        assertThat(endpoint.state()).containsEntry("enabled", false);
+    }
+
+    @Test
+    void shouldRejectInvalidSampleRate() {
+        assertThrows(InvalidEndpointRequestException.class, () -> endpoint.enable(1L, 0.0));
+        assertThrows(InvalidEndpointRequestException.class, () -> endpoint.enable(1L, 1.5));
+    }
+
+    private List<FilterReply> decideSqlLogging(long userId) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HEADER_USER_ID, userId);
+        List<FilterReply> replies = new ArrayList<>();
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            replies.add(decide("org.hibernate.SQL", Level.DEBUG));
+            replies.add(decide("org.hibernate.type.descriptor.sql.BasicBinder", Level.TRACE));
+            replies.add(decide("ru.practicum.shareit", Level.TRACE));
+        });
+
+        return replies;
+    }
+
+    private FilterReply decide(String loggerName, Level level) {
+        return turboFilter.decide(null, loggerContext.getLogger(loggerName), level, null, null, null);
+    }
+}
@@ -6,20 +6,28 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.item.dal.ItemService;
+import ru.practicum.shareit.item.dto.availability.AvailabilitySlotDto;
+import ru.practicum.shareit.item.dto.availability.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.comment.CommentDto;
 import ru.practicum.shareit.item.dto.comment.CreatingCommentDto;
 import ru.practicum.shareit.item.dto.item.CreatingItemDto;
 import ru.practicum.shareit.item.dto.item.ItemDto;
+import ru.practicum.shareit.item.dto.item.ItemViewDto;
+import ru.practicum.shareit.item.model.Item;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static ru.practicum.shareit.util.Constant.HEADER_USER_ID;
@@ -135,6 +143,19 @@ public class ItemControllerTest {
         verify(service, times(1)).updateItem(anyLong(), anyLong(), any(CreatingItemDto.class));
     }
 
+    @Test
+    void shouldGetConflictWithConcurrentUpdateItem() throws Exception {
+        when(service.updateItem(anyLong(), anyLong(), any(CreatingItemDto.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Item.class, 1L));
+
+        mvc.perform(patch("/items/1")
+                        .header(HEADER_USER_ID, 1L)
+                        .content(mapper.writeValueAsString(creatingItemDto))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").exists());
+    }
+
     @Test
     void shouldDeleteItem() throws Exception {
         mvc.perform(delete("/items/1")
@@ -146,13 +167,17 @@ public class ItemControllerTest {
 
     @Test
     void shouldGetByItemId() throws Exception {
+        when(service.getItemETag(anyLong(), anyLong()))
+                .thenReturn("\"1\"");
         when(service.getItemById(anyLong(), anyLong()))
-                .thenReturn(itemDto);
+                .thenReturn(itemView("\"1\"", false));
 
         mvc.perform(get("/items/1")
                         .header(HEADER_USER_ID, 1L)
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+                .andExpect(header().doesNotExist(HttpHeaders.CACHE_CONTROL))
                 .andExpect(jsonPath("$.id", is(itemDto.getId()), Long.class))
                 .andExpect(jsonPath("$.name", is(itemDto.getName())))
                 .andExpect(jsonPath("$.description", is(itemDto.getDescription())))
@@ -160,6 +185,95 @@ public class ItemControllerTest {
         verify(service, times(1)).getItemById(anyLong(), anyLong());
     }
 
+    @Test
+    void shouldTagBodyWithETagOfLoadedView() throws Exception {
+        when(service.getItemETag(anyLong(), anyLong()))
+                .thenReturn("\"1\"");
+        when(service.getItemById(anyLong(), anyLong()))
+                .thenReturn(itemView("\"2\"", false));
+
+        mvc.perform(get("/items/1")
+                        .header(HEADER_USER_ID, 1L)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().stringValues(HttpHeaders.ETAG, "\"2\""));
+    }
+
+    @Test
+    void shouldForbidSharedCachingOfOwnerItemView() throws Exception {
+        when(service.getItemById(anyLong(), anyLong()))
+                .thenReturn(itemView("\"1-0-0\"", true));
+
+        mvc.perform(get("/items/1")
+                        .header(HEADER_USER_ID, 1L)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1-0-0\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"));
+    }
+
+    @Test
+    void shouldGetNotModifiedWithGetByItemIdWithMatchingETag() throws Exception {
+        when(service.getItemETag(anyLong(), anyLong()))
+                .thenReturn("\"1\"");
+
+        mvc.perform(get("/items/1")
+                        .header(HEADER_USER_ID, 1L)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"1\"")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+        verify(service, never()).getItemById(anyLong(), anyLong());
+    }
+
+    @Test
+    void shouldGetNotModifiedOwnerViewWithMatchingETag() throws Exception {
+        when(service.getItemById(anyLong(), anyLong()))
+                .thenReturn(itemView("\"1-0-0\"", true));
+
+        mvc.perform(get("/items/1")
+                        .header(HEADER_USER_ID, 1L)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"1-0-0\"")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void shouldGetItemAvailability() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        LocalDateTime to = from.plusDays(1);
+        ItemAvailabilityDto availability = ItemAvailabilityDto.builder()
+                .itemId(1L)
+                .from(from)
+                .to(to)
+                .slots(List.of(AvailabilitySlotDto.builder()
+                        .start(from)
+                        .end(to)
+                        .available(true)
+                        .build()))
+                .build();
+        when(service.getItemAvailability(anyLong(), anyLong(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(availability);
+
+        mvc.perform(get("/items/1/availability")
+                        .header(HEADER_USER_ID, 1L)
+                        .param("from", "2030-01-01T00:00:00")
+                        .param("to", "2030-01-02T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.itemId", is(1L), Long.class))
+                .andExpect(jsonPath("$.slots.length()", is(1)))
+                .andExpect(jsonPath("$.slots[0].available", is(true)));
+        verify(service, times(1)).getItemAvailability(1L, 1L, from, to);
+    }
+
+    @Test
+    void shouldGetExceptionWithAvailabilityWithoutRange() throws Exception {
+        mvc.perform(get("/items/1/availability")
+                        .header(HEADER_USER_ID, 1L))
+                .andExpect(status().isBadRequest());
+        verify(service, never()).getItemAvailability(anyLong(), anyLong(), any(LocalDateTime.class), any(LocalDateTime.class));
+    }
+
     @Test
     void shouldGetExceptionWithSearchWithoutText() throws Exception {
         mvc.perform(get("/items/search")
@@ -183,4 +297,12 @@ public class ItemControllerTest {
                 .andExpect(status().isOk());
         verify(service, times(1)).addComment(anyLong(), anyLong(), any(CreatingCommentDto.class));
     }
+
+    private ItemViewDto itemView(String eTag, boolean owner) {
+        return ItemViewDto.builder()
+                .item(itemDto)
+                .eTag(eTag)
+                .owner(owner)
+                .build();
+    }
 }
@@ -0,0 +1,107 @@
+package ru.practicum.shareit.item.dal;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import ru.practicum.shareit.booking.StatusType;
+import ru.practicum.shareit.booking.dao.BookingRepository;
+import ru.practicum.shareit.booking.dto.BookingIntervalView;
+import ru.practicum.shareit.item.dto.availability.AvailabilitySlotDto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ItemAvailabilityIndexTest {
+    private final LocalDateTime day = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    private BookingRepository bookingRepository;
+    private ItemAvailabilityIndex availabilityIndex;
+
+    @BeforeEach
+    void initialize() {
+        bookingRepository = Mockito.mock(BookingRepository.class);
+        availabilityIndex = new ItemAvailabilityIndex(bookingRepository, "maximumSize=100");
+    }
+
+    @Test
+    void shouldSplitRangeIntoFreeAndBusySlots() {
+        when(bookingRepository.findAllByItemIdAndStatusOrderByDateStart(anyLong(), eq(StatusType.APPROVED)))
+                .thenReturn(List.of(interval(2, 4), interval(4, 6), interval(10, 12)));
+
+        List<AvailabilitySlotDto> slots = availabilityIndex.getSlots(1L, day, day.plusHours(11));
+
+        assertThat(slots).containsExactly(
+                slot(0, 2, true),
+                slot(2, 6, false),
+                slot(6, 10, true),
+                slot(10, 11, false));
+    }
+
+    @Test
+    void shouldReturnSingleFreeSlotWithoutBookings() {
+        when(bookingRepository.findAllByItemIdAndStatusOrderByDateStart(anyLong(), eq(StatusType.APPROVED)))
+                .thenReturn(List.of());
+
+        assertThat(availabilityIndex.getSlots(1L, day, day.plusHours(3)))
+                .containsExactly(slot(0, 3, true));
+    }
+
+    @Test
+    void shouldApplyApprovedBookingWithoutReload() {
+        when(bookingRepository.findAllByItemIdAndStatusOrderByDateStart(anyLong(), eq(StatusType.APPROVED)))
+                .thenReturn(List.of(interval(2, 4), interval(8, 10)));
+
+        availabilityIndex.getSlots(1L, day, day.plusHours(12));
+        availabilityIndex.addApproved(1L, day.plusHours(4), day.plusHours(8));
+        availabilityIndex.addApproved(1L, day.plusHours(11), day.plusHours(12));
+
+        assertThat(availabilityIndex.getSlots(1L, day, day.plusHours(12)))
+                .containsExactly(
+                        slot(0, 2, true),
+                        slot(2, 10, false),
+                        slot(10, 11, true),
+                        slot(11, 12, false));
+        verify(bookingRepository, times(1)).findAllByItemIdAndStatusOrderByDateStart(1L, StatusType.APPROVED);
+    }
+
+    @Test
+    void shouldReloadAfterRemove() {
+        when(bookingRepository.findAllByItemIdAndStatusOrderByDateStart(anyLong(), eq(StatusType.APPROVED)))
+                .thenReturn(List.of(interval(2, 4)));
+
+        availabilityIndex.getSlots(1L, day, day.plusHours(6));
+        availabilityIndex.remove(1L);
+        availabilityIndex.getSlots(1L, day, day.plusHours(6));
+
+        verify(bookingRepository, times(2)).findAllByItemIdAndStatusOrderByDateStart(1L, StatusType.APPROVED);
+    }
+
+    private BookingIntervalView interval(int startHour, int endHour) {
+        return new BookingIntervalView() {
+            @Override
+            public LocalDateTime getDateStart() {
+                return day.plusHours(startHour);
+            }
+
+            @Override
+            public LocalDateTime getDateEnd() {
+                return day.plusHours(endHour);
+            }
+        };
+    }
+
+    private AvailabilitySlotDto slot(int startHour, int endHour, boolean available) {
+        return AvailabilitySlotDto.builder()
+                .start(day.plusHours(startHour))
+                .end(day.plusHours(endHour))
+                .available(available)
+                .build();
+    }
+}
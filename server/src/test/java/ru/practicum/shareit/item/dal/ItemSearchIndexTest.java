@@ -0,0 +1,148 @@
+package ru.practicum.shareit.item.dal;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+class ItemSearchIndexTest {
+    private ItemRepository itemRepository;
+    private ItemSearchIndex searchIndex;
+
+    private final Item drill = Item.builder()
+            .id(1L)
+            .name("Дрель")
+            .description("Простая дрель")
+            .available(true)
+            .build();
+    private final Item screwdriver = Item.builder()
+            .id(2L)
+            .name("Отвертка")
+            .description("Аккумуляторная отвертка")
+            .available(true)
+            .build();
+    private final Item batteryDrill = Item.builder()
+            .id(3L)
+            .name("Дрель+")
+            .description("Аккумуляторная дрель")
+            .available(true)
+            .build();
+
+    @BeforeEach
+    void initialize() {
+        itemRepository = Mockito.mock(ItemRepository.class);
+        searchIndex = new ItemSearchIndex(itemRepository);
+        ReflectionTestUtils.setField(searchIndex, "enabled", true);
+    }
+
+    @Test
+    void shouldRebuildFromRepository() {
+        when(itemRepository.findAvailableAfter(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(drill, screwdriver));
+        when(itemRepository.findAvailableAfter(eq(2L), any(Pageable.class)))
+                .thenReturn(List.of(batteryDrill));
+        when(itemRepository.findAvailableAfter(eq(3L), any(Pageable.class)))
+                .thenReturn(Collections.emptyList());
+
+        searchIndex.rebuild();
+
+        assertThat(searchIndex.search("дРелЬ")).containsExactly(1L, 3L);
+        assertThat(searchIndex.search("аккум")).containsExactly(2L, 3L);
+        assertThat(searchIndex.search("аккумуляторная дрель")).containsExactly(3L);
+        assertThat(searchIndex.search("пила")).isEmpty();
+        assertThat(searchIndex.search(" ")).isEmpty();
+    }
+
+    @Test
+    void shouldKeepChangesMadeDuringRebuild() {
+        searchIndex.add(drill);
+        when(itemRepository.findAvailableAfter(eq(0L), any(Pageable.class)))
+                .thenAnswer(invocation -> {
+                    searchIndex.add(screwdriver);
+                    return List.of(drill, batteryDrill);
+                });
+        when(itemRepository.findAvailableAfter(eq(3L), any(Pageable.class)))
+                .thenAnswer(invocation -> {
+                    assertThat(searchIndex.search("дрель")).containsExactly(1L);
+                    searchIndex.remove(batteryDrill);
+                    return Collections.emptyList();
+                });
+
+        searchIndex.rebuild();
+
+        assertThat(searchIndex.search("дрель")).containsExactly(1L);
+        assertThat(searchIndex.search("отвертка")).containsExactly(2L);
+    }
+
+    @Test
+    void shouldUpdateIncrementally() {
+        searchIndex.add(drill);
+        searchIndex.add(screwdriver);
+
+        assertThat(searchIndex.search("рел")).containsExactly(1L);
+
+        searchIndex.remove(drill);
+        drill.setName("Пила");
+        drill.setDescription("Ручная пила");
+        searchIndex.add(drill);
+
+        assertThat(searchIndex.search("рел")).isEmpty();
+        assertThat(searchIndex.search("пила")).containsExactly(1L);
+
+        searchIndex.remove(screwdriver);
+        screwdriver.setAvailable(false);
+        searchIndex.add(screwdriver);
+
+        assertThat(searchIndex.search("отвертка")).isEmpty();
+    }
+
+    @Test
+    void shouldMatchShortQueriesByGram() {
+        searchIndex.add(drill);
+        searchIndex.add(screwdriver);
+
+        assertThat(searchIndex.search("д")).containsExactly(1L);
+        assertThat(searchIndex.search("от")).containsExactly(2L);
+        assertThat(searchIndex.search("рел")).containsExactly(1L);
+    }
+
+    @Test
+    void shouldVerifyCandidatesFromDifferentTokens() {
+        searchIndex.add(Item.builder()
+                .id(4L)
+                .name("абвб")
+                .description("бвба")
+                .available(true)
+                .build());
+        searchIndex.add(Item.builder()
+                .id(5L)
+                .name("xабвбаx")
+                .description("")
+                .available(true)
+                .build());
+
+        assertThat(searchIndex.search("абвба")).containsExactly(5L);
+        assertThat(searchIndex.search("бвб")).containsExactly(4L, 5L);
+    }
+
+    @Test
+    void shouldIgnoreChangesWhenDisabled() {
+        ReflectionTestUtils.setField(searchIndex, "enabled", false);
+
+        searchIndex.add(drill);
+
+        assertThat(searchIndex.isEnabled()).isFalse();
+        assertThat(searchIndex.search("дрель")).isEmpty();
+    }
+}
@@ -6,12 +6,11 @@ import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.test.annotation.DirtiesContext;
-import ru.practicum.shareit.booking.model.Booking;
-import ru.practicum.shareit.booking.StatusType;
+import ru.practicum.shareit.booking.dao.BookingRepository;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.exception.AccessDeniedException;
 import ru.practicum.shareit.exception.EntityNotFoundException;
 import ru.practicum.shareit.exception.NotAvailableBookingException;
@@ -20,20 +19,23 @@ import ru.practicum.shareit.item.dao.ItemRepository;
 import ru.practicum.shareit.item.dto.comment.CreatingCommentDto;
 import ru.practicum.shareit.item.dto.item.CreatingItemDto;
 import ru.practicum.shareit.item.dto.item.ItemDto;
+import ru.practicum.shareit.item.dto.item.ItemStateView;
+import ru.practicum.shareit.item.dto.item.ItemViewDto;
 import ru.practicum.shareit.item.mapper.CommentMapper;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.dao.ItemRequestRepository;
 import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.dal.UserService;
 import ru.practicum.shareit.user.dao.UserRepository;
 import ru.practicum.shareit.user.model.User;
 
+import javax.validation.ValidationException;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -50,9 +52,14 @@ class ItemServiceTest {
     private static UserRepository userRepository;
     private static CommentRepository commentRepository;
     private static ItemRequestRepository itemRequestRepository;
+    private static BookingRepository bookingRepository;
     private static ItemService itemService;
     private static ItemMapper itemMapper;
     private static CommentMapper commentMapper;
+    private static BookingMapper bookingMapper;
+    private static ItemSearchIndex searchIndex;
+    private static ItemAvailabilityIndex availabilityIndex;
+    private static UserService userService;
 
 
     private final LocalDateTime now = LocalDateTime.now();
@@ -85,6 +92,7 @@ class ItemServiceTest {
             .available(true)
             .owner(user)
             .itemRequest(request)
+            .version(2L)
             .bookings(Collections.emptySet())
             .comments(Collections.emptySet())
             .build();
@@ -138,14 +146,6 @@ class ItemServiceTest {
             .author(user)
             .creationDate(LocalDateTime.now())
             .build();
-    private final Booking booking = Booking.builder()
-            .id(1L)
-            .dateStart(now.minusSeconds(666))
-            .dateEnd(now.minusSeconds(13))
-            .item(item)
-            .booker(user2)
-            .status(StatusType.APPROVED)
-            .build();
     private final PageRequest page = PageRequest.of(0, 3);
 
 
@@ -155,15 +155,21 @@ class ItemServiceTest {
         userRepository = Mockito.mock(UserRepository.class);
         commentRepository = Mockito.mock(CommentRepository.class);
         itemRequestRepository = Mockito.mock(ItemRequestRepository.class);
+        bookingRepository = Mockito.mock(BookingRepository.class);
         itemMapper = Mockito.mock(ItemMapper.class);
         commentMapper = Mockito.mock(CommentMapper.class);
-        itemService = new ItemServiceImpl(itemRepository, userRepository, commentRepository, itemRequestRepository, itemMapper, commentMapper);
+        bookingMapper = Mockito.mock(BookingMapper.class);
+        searchIndex = Mockito.mock(ItemSearchIndex.class);
+        availabilityIndex = Mockito.mock(ItemAvailabilityIndex.class);
+        userService = Mockito.mock(UserService.class);
+        itemService = new ItemServiceImpl(itemRepository, userRepository, commentRepository, itemRequestRepository,
+                bookingRepository, itemMapper, commentMapper, bookingMapper, searchIndex, availabilityIndex, userService);
     }
 
     @Test
     void shouldCreateItemWithRequest() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.of(user));
+        when(userRepository.getReferenceById(anyLong()))
+                .thenReturn(user);
         when(itemRequestRepository.findById(anyLong()))
                 .thenReturn(Optional.of(request));
         when(commentRepository.findById(anyLong()))
@@ -185,7 +191,7 @@ class ItemServiceTest {
                 .hasFieldOrPropertyWithValue("lastBooking", null)
                 .hasFieldOrPropertyWithValue("nextBooking", null)
                 .hasFieldOrPropertyWithValue("comments", Collections.emptyList());
-        verify(userRepository, times(1)).findById(anyLong());
+        verify(userService, times(1)).getUserById(anyLong());
         verify(itemRequestRepository, times(1)).findById(anyLong());
         verify(commentRepository, never()).findById(anyLong());
         verify(itemRepository, times(1)).save(any(Item.class));
@@ -193,8 +199,8 @@ class ItemServiceTest {
 
     @Test
     void shouldGetExceptionWithCreateWithNotFoundUser() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.empty());
+        when(userService.getUserById(anyLong()))
+                .thenThrow(new EntityNotFoundException("Пользователь не найден"));
         when(itemRequestRepository.findById(anyLong()))
                 .thenReturn(Optional.of(request));
         when(commentRepository.findById(anyLong()))
@@ -204,7 +210,7 @@ class ItemServiceTest {
 
         assertThrows(EntityNotFoundException.class, () -> itemService.addItem(1L, creatingItemDto));
 
-        verify(userRepository, times(1)).findById(anyLong());
+        verify(userService, times(1)).getUserById(anyLong());
         verify(itemRequestRepository, never()).findById(anyLong());
         verify(commentRepository, never()).findById(anyLong());
         verify(itemRepository, never()).save(any(Item.class));
@@ -212,8 +218,8 @@ class ItemServiceTest {
 
     @Test
     void shouldGetExceptionWithCreateWithNotFoundRequest() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.of(user));
+        when(userRepository.getReferenceById(anyLong()))
+                .thenReturn(user);
         when(itemRequestRepository.findById(anyLong()))
                 .thenReturn(Optional.empty());
         when(commentRepository.findById(anyLong()))
@@ -225,7 +231,7 @@ class ItemServiceTest {
 
         assertThrows(EntityNotFoundException.class, () -> itemService.addItem(1L, creatingItemDto));
 
-        verify(userRepository, times(1)).findById(anyLong());
+        verify(userService, times(1)).getUserById(anyLong());
         verify(itemRequestRepository, times(1)).findById(anyLong());
         verify(commentRepository, never()).findById(anyLong());
         verify(itemRepository, never()).save(any(Item.class));
@@ -233,8 +239,8 @@ class ItemServiceTest {
 
     @Test
     void shouldGetExceptionWithUpdateItemWithNotFoundUser() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.empty());
+        when(userService.getUserById(anyLong()))
+                .thenThrow(new EntityNotFoundException("Пользователь не найден"));
         when(itemRequestRepository.findById(anyLong()))
                 .thenReturn(Optional.of(request));
         when(commentRepository.findById(anyLong()))
@@ -244,18 +250,16 @@ class ItemServiceTest {
         when(itemRepository.save(updatedItem))
                 .thenReturn(updatedItem);
 
-        assertThrows(EntityNotFoundException.class, () -> itemService.updateItem(1L, 1L, updatedCreatingItemDto));
-        verify(userRepository, times(1)).findById(anyLong());
+        assertThrows(EntityNotFoundException.class, () -> itemService.updateItem(666L, 1L, updatedCreatingItemDto));
+        verify(userService, times(1)).getUserById(anyLong());
         verify(itemRequestRepository, never()).findById(anyLong());
         verify(commentRepository, never()).findById(anyLong());
-        verify(itemRepository, never()).findByIdWithOwner(anyLong());
+        verify(itemRepository, times(1)).findByIdWithOwner(anyLong());
         verify(itemRepository, never()).save(any(Item.class));
     }
 
     @Test
     void shouldGetExceptionWithUpdateItemWithNotFoundItem() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.of(user));
         when(itemRequestRepository.findById(anyLong()))
                 .thenReturn(Optional.of(request));
         when(commentRepository.findById(anyLong()))
@@ -266,7 +270,7 @@ class ItemServiceTest {
                 .thenReturn(updatedItem);
 
         assertThrows(EntityNotFoundException.class, () -> itemService.updateItem(1L, 1L, updatedCreatingItemDto));
-        verify(userRepository, times(1)).findById(anyLong());
+        verify(userService, never()).getUserById(anyLong());
         verify(itemRequestRepository, never()).findById(anyLong());
         verify(commentRepository, never()).findById(anyLong());
         verify(itemRepository, times(1)).findByIdWithOwner(anyLong());
@@ -275,8 +279,6 @@ class ItemServiceTest {
 
     @Test
     void shouldGetExceptionWithUpdateItemWithNotFoundOwner() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.of(user.toBuilder().id(2L).build()));
         when(itemRequestRepository.findById(anyLong()))
                 .thenReturn(Optional.of(request));
         when(commentRepository.findById(anyLong()))
@@ -286,8 +288,8 @@ class ItemServiceTest {
         when(itemRepository.save(updatedItem))
                 .thenReturn(updatedItem);
 
-        assertThrows(AccessDeniedException.class, () -> itemService.updateItem(1L, 1L, updatedCreatingItemDto));
-        verify(userRepository, times(1)).findById(anyLong());
+        assertThrows(AccessDeniedException.class, () -> itemService.updateItem(2L, 1L, updatedCreatingItemDto));
+        verify(userService, times(1)).getUserById(anyLong());
         verify(itemRequestRepository, never()).findById(anyLong());
         verify(commentRepository, never()).findById(anyLong());
         verify(itemRepository, times(1)).findByIdWithOwner(anyLong());
@@ -296,8 +298,6 @@ class ItemServiceTest {
 
     @Test
     void shouldUpdateItem() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.of(user));
         when(itemRepository.findByIdWithOwner(anyLong()))
                 .thenReturn(Optional.of(updatedItem));
         when(itemMapper.toItem(any(CreatingItemDto.class)))
@@ -316,7 +316,7 @@ class ItemServiceTest {
                 .hasFieldOrPropertyWithValue("lastBooking", null)
                 .hasFieldOrPropertyWithValue("nextBooking", null)
                 .hasFieldOrPropertyWithValue("comments", Collections.emptyList());
-        verify(userRepository, times(1)).findById(anyLong());
+        verify(userService, never()).getUserById(anyLong());
         verify(itemRequestRepository, never()).findById(anyLong());
         verify(commentRepository, never()).findById(anyLong());
         verify(itemRepository, times(1)).findByIdWithOwner(anyLong());
@@ -324,8 +324,6 @@ class ItemServiceTest {
 
     @Test
     void shouldDeleteItem() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.of(user));
         when(itemRequestRepository.findById(anyLong()))
                 .thenReturn(Optional.of(request));
         when(commentRepository.findById(anyLong()))
@@ -336,7 +334,7 @@ class ItemServiceTest {
 
         itemService.deleteItem(user.getId(), item.getId());
 
-        verify(userRepository, times(1)).findById(anyLong());
+        verify(userService, never()).getUserById(anyLong());
         verify(itemRequestRepository, never()).findById(anyLong());
         verify(commentRepository, never()).findById(anyLong());
         verify(itemRepository, times(1)).findByIdWithOwner(anyLong());
@@ -345,8 +343,8 @@ class ItemServiceTest {
 
     @Test
     void shouldGetExceptionWithDeleteItemWithNotFoundUser() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.empty());
+        when(userService.getUserById(anyLong()))
+                .thenThrow(new EntityNotFoundException("Пользователь не найден"));
         when(itemRequestRepository.findById(anyLong()))
                 .thenReturn(Optional.of(request));
         when(commentRepository.findById(anyLong()))
@@ -355,18 +353,16 @@ class ItemServiceTest {
                 .thenReturn(Optional.of(item));
         doNothing().when(itemRepository).deleteById(anyLong());
 
-        assertThrows(EntityNotFoundException.class, () -> itemService.updateItem(1L, 1L, updatedCreatingItemDto));
-        verify(userRepository, times(1)).findById(anyLong());
+        assertThrows(EntityNotFoundException.class, () -> itemService.deleteItem(666L, 1L));
+        verify(userService, times(1)).getUserById(anyLong());
         verify(itemRequestRepository, never()).findById(anyLong());
         verify(commentRepository, never()).findById(anyLong());
-        verify(itemRepository, never()).findById(anyLong());
+        verify(itemRepository, times(1)).findByIdWithOwner(anyLong());
         verify(itemRepository, never()).deleteById(anyLong());
     }
 
     @Test
     void shouldGetExceptionWithDeleteItemWithNotFoundItem() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.of(user));
         when(itemRequestRepository.findById(anyLong()))
                 .thenReturn(Optional.of(request));
         when(commentRepository.findById(anyLong()))
@@ -376,7 +372,7 @@ class ItemServiceTest {
         doNothing().when(itemRepository).deleteById(anyLong());
 
         assertThrows(EntityNotFoundException.class, () -> itemService.deleteItem(1L, 1L));
-        verify(userRepository, times(1)).findById(anyLong());
+        verify(userService, never()).getUserById(anyLong());
         verify(itemRequestRepository, never()).findById(anyLong());
         verify(commentRepository, never()).findById(anyLong());
         verify(itemRepository, times(1)).findByIdWithOwner(anyLong());
@@ -385,8 +381,6 @@ class ItemServiceTest {
 
     @Test
     void shouldGetExceptionWithDeleteItemWithNotFoundOwner() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.of(user.toBuilder().id(2L).build()));
         when(itemRequestRepository.findById(anyLong()))
                 .thenReturn(Optional.of(request));
         when(commentRepository.findById(anyLong()))
@@ -395,8 +389,8 @@ class ItemServiceTest {
                 .thenReturn(Optional.of(item));
         doNothing().when(itemRepository).deleteById(anyLong());
 
-        assertThrows(AccessDeniedException.class, () -> itemService.deleteItem(1L, 1L));
-        verify(userRepository, times(1)).findById(anyLong());
+        assertThrows(AccessDeniedException.class, () -> itemService.deleteItem(2L, 1L));
+        verify(userService, times(1)).getUserById(anyLong());
         verify(itemRequestRepository, never()).findById(anyLong());
         verify(commentRepository, never()).findById(anyLong());
         verify(itemRepository, times(1)).findByIdWithOwner(anyLong());
@@ -405,69 +399,125 @@ class ItemServiceTest {
 
     @Test
     void shouldGetByIdByOwner() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.of(user));
+        ItemStateView state = itemState();
+        when(itemRepository.findStateById(anyLong()))
+                .thenReturn(Optional.of(state));
         when(itemRepository.findByIdWithOwner(anyLong()))
                 .thenReturn(Optional.of(item));
+        when(itemMapper.toDto(any(Item.class)))
+                .thenReturn(itemDto());
 
-        itemService.getItemById(user.getId(), item.getId());
+        ItemViewDto itemView = itemService.getItemById(user.getId(), item.getId());
 
-        verify(userRepository, times(1)).findById(anyLong());
+        assertThat(itemView.getETag()).isEqualTo("\"2-0-0\"");
+        assertThat(itemView.isOwner()).isTrue();
+        verify(userService, never()).getUserById(anyLong());
         verify(itemRequestRepository, never()).findById(anyLong());
         verify(commentRepository, never()).findById(anyLong());
         verify(itemRepository, times(1)).findByIdWithOwner(anyLong());
+        verify(bookingRepository, times(1)).findLastAndNextByItemIds(eq(List.of(item.getId())), any(LocalDateTime.class));
     }
 
     @Test
     void shouldGetByIdByNotOwner() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.of(user.toBuilder().id(2L).build()));
+        ItemStateView state = itemState();
+        when(itemRepository.findStateById(anyLong()))
+                .thenReturn(Optional.of(state));
         when(itemRepository.findByIdWithOwner(anyLong()))
                 .thenReturn(Optional.of(item));
+        when(itemMapper.toDto(any(Item.class)))
+                .thenReturn(itemDto());
 
-        itemService.getItemById(2L, item.getId());
+        ItemViewDto itemView = itemService.getItemById(2L, item.getId());
 
-        verify(userRepository, times(1)).findById(anyLong());
+        assertThat(itemView.getETag()).isEqualTo("\"2\"");
+        assertThat(itemView.isOwner()).isFalse();
+        verify(userService, times(1)).getUserById(anyLong());
         verify(itemRequestRepository, never()).findById(anyLong());
         verify(commentRepository, never()).findById(anyLong());
         verify(itemRepository, times(1)).findByIdWithOwner(anyLong());
+        verify(bookingRepository, never()).findLastAndNextByItemIds(anyCollection(), any(LocalDateTime.class));
     }
 
     @Test
-    void shouldGetExceptionGetByIdByWithNotFoundUser() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.empty());
+    void shouldTagItemWithVersionOfLoadedSnapshot() {
+        ItemStateView state = itemState();
+        when(state.getVersion()).thenReturn(1L);
+        when(itemRepository.findStateById(anyLong()))
+                .thenReturn(Optional.of(state));
         when(itemRepository.findByIdWithOwner(anyLong()))
                 .thenReturn(Optional.of(item));
+        when(itemMapper.toDto(any(Item.class)))
+                .thenReturn(itemDto());
 
-        assertThrows(EntityNotFoundException.class, () -> itemService.getItemById(1L, 1L));
-        verify(userRepository, times(1)).findById(anyLong());
+        assertThat(itemService.getItemById(2L, item.getId()).getETag()).isEqualTo("\"2\"");
+    }
+
+    @Test
+    void shouldGetExceptionGetByIdByWithNotFoundUser() {
+        ItemStateView state = itemState();
+        when(itemRepository.findStateById(anyLong()))
+                .thenReturn(Optional.of(state));
+        when(userService.getUserById(anyLong()))
+                .thenThrow(new EntityNotFoundException("Пользователь не найден"));
+
+        assertThrows(EntityNotFoundException.class, () -> itemService.getItemById(2L, 1L));
+        verify(userService, times(1)).getUserById(anyLong());
         verify(itemRequestRepository, never()).findById(anyLong());
         verify(commentRepository, never()).findById(anyLong());
-        verify(itemRepository, never()).findById(anyLong());
+        verify(itemRepository, never()).findByIdWithOwner(anyLong());
     }
 
     @Test
     void shouldGetExceptionGetByIdByWithNotFoundItem() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.of(user));
-        when(itemRepository.findByIdWithOwner(anyLong()))
+        when(itemRepository.findStateById(anyLong()))
                 .thenReturn(Optional.empty());
 
         assertThrows(EntityNotFoundException.class, () -> itemService.getItemById(1L, 1L));
-        verify(userRepository, times(1)).findById(anyLong());
+        verify(userService, never()).getUserById(anyLong());
         verify(itemRequestRepository, never()).findById(anyLong());
         verify(commentRepository, never()).findById(anyLong());
-        verify(itemRepository, times(1)).findByIdWithOwner(anyLong());
+        verify(itemRepository, never()).findByIdWithOwner(anyLong());
+    }
+
+    @Test
+    void shouldNotGetETagBeforeLoadingOwnerView() {
+        ItemStateView state = itemState();
+        when(itemRepository.findStateById(anyLong()))
+                .thenReturn(Optional.of(state));
+
+        assertThat(itemService.getItemETag(user.getId(), item.getId())).isNull();
+        verify(userService, never()).getUserById(anyLong());
+        verify(itemRepository, never()).findByIdWithOwner(anyLong());
+    }
+
+    @Test
+    void shouldGetETagFromVersionByNotOwner() {
+        ItemStateView state = itemState();
+        when(itemRepository.findStateById(anyLong()))
+                .thenReturn(Optional.of(state));
+
+        String eTag = itemService.getItemETag(2L, item.getId());
+
+        assertThat(eTag).isEqualTo("\"2\"");
+        verify(userService, times(1)).getUserById(anyLong());
+        verify(itemRepository, never()).findByIdWithOwner(anyLong());
+    }
+
+    @Test
+    void shouldGetExceptionWithGetETagWithNotFoundItem() {
+        when(itemRepository.findStateById(anyLong()))
+                .thenReturn(Optional.empty());
+
+        assertThrows(EntityNotFoundException.class, () -> itemService.getItemETag(1L, 1L));
+        verify(userService, never()).getUserById(anyLong());
     }
 
     @Test
     void shouldGetAllByUserIdByOwner() {
-        when(userRepository.existsById(anyLong()))
-                .thenReturn(true);
         when(itemRepository.findAllByOwnerId(anyLong(), any(Pageable.class)))
-                .thenReturn(new PageImpl<>(items));
-        when(itemMapper.toDtoWithBooking(any(Item.class)))
+                .thenReturn(items);
+        when(itemMapper.toDtoWithBooking(any(Item.class), any(), any()))
                 .thenReturn(itemDto);
 
         List<ItemDto> items = itemService.getAllItemsByUserId(1L, page);
@@ -480,6 +530,7 @@ class ItemServiceTest {
                     assertThat(list.get(0)).hasFieldOrPropertyWithValue("name", "item");
                     assertThat(list.get(0)).hasFieldOrPropertyWithValue("description", "description");
                 });
+        verify(userService, never()).getUserById(anyLong());
         verify(itemRequestRepository, never()).findById(anyLong());
         verify(commentRepository, never()).findById(anyLong());
         verify(itemRepository, times(1)).findAllByOwnerId(anyLong(), any(Pageable.class));
@@ -488,25 +539,34 @@ class ItemServiceTest {
     @Test
     void shouldGetAllByUserIdByNotOwner() {
         when(itemRepository.findAllByOwnerId(anyLong(), any(Pageable.class)))
-                .thenReturn(new PageImpl<>(items));
-        when(userRepository.existsById(anyLong()))
-                .thenReturn(true);
+                .thenReturn(List.of());
 
         List<ItemDto> items = itemService.getAllItemsByUserId(2L, page);
 
         assertThat(items).asList()
                 .isEmpty();
+        verify(userService, times(1)).getUserById(anyLong());
         verify(itemRequestRepository, never()).findById(anyLong());
         verify(commentRepository, never()).findById(anyLong());
         verify(itemRepository, times(1)).findAllByOwnerId(anyLong(), any(Pageable.class));
     }
 
+    @Test
+    void shouldGetExceptionWithGetAllByUserIdWithNotFoundUser() {
+        when(itemRepository.findAllByOwnerId(anyLong(), any(Pageable.class)))
+                .thenReturn(List.of());
+        when(userService.getUserById(anyLong()))
+                .thenThrow(new EntityNotFoundException("Пользователь не найден"));
+
+        assertThrows(EntityNotFoundException.class, () -> itemService.getAllItemsByUserId(666L, page));
+        verify(itemRepository, times(1)).findAllByOwnerId(anyLong(), any(Pageable.class));
+        verify(userService, times(1)).getUserById(anyLong());
+    }
+
     @Test
     void shouldSearch() {
-        when(userRepository.existsById(anyLong()))
-                .thenReturn(true);
         when(itemRepository.search(anyString(), any(Pageable.class)))
-                .thenReturn(new PageImpl<>(items));
+                .thenReturn(items);
         when(itemMapper.toDto(any(Item.class)))
                 .thenReturn(itemDto);
 
@@ -519,21 +579,54 @@ class ItemServiceTest {
                     assertThat(list.get(0)).hasFieldOrPropertyWithValue("name", "item");
                     assertThat(list.get(0)).hasFieldOrPropertyWithValue("description", "description");
                 });
-        verify(userRepository, times(1)).existsById(anyLong());
+        verify(userService, times(1)).getUserById(anyLong());
         verify(itemRequestRepository, never()).findById(anyLong());
         verify(commentRepository, never()).findById(anyLong());
         verify(itemRepository, times(1)).search(anyString(), any(Pageable.class));
     }
 
+    @Test
+    void shouldSearchInIndex() {
+        when(searchIndex.isEnabled())
+                .thenReturn(true);
+        when(searchIndex.search(anyString()))
+                .thenReturn(new long[]{1L, 2L, 5L, 7L});
+        when(itemRepository.findAvailableByIds(anyCollection()))
+                .thenReturn(List.of(item));
+        when(itemMapper.toDto(any(Item.class)))
+                .thenReturn(itemDto);
+
+        List<ItemDto> items = itemService.search(1L, "text", PageRequest.of(1, 3));
+
+        assertThat(items).asList()
+                .hasSize(1);
+        verify(itemRepository, never()).search(anyString(), any(Pageable.class));
+        verify(itemRepository, times(1)).findAvailableByIds(List.of(7L));
+    }
+
+    @Test
+    void shouldGetEmptyListWithSearchInIndexOutOfRange() {
+        when(searchIndex.isEnabled())
+                .thenReturn(true);
+        when(searchIndex.search(anyString()))
+                .thenReturn(new long[]{1L, 2L});
+
+        List<ItemDto> items = itemService.search(1L, "text", PageRequest.of(1, 3));
+
+        assertThat(items).asList()
+                .isEmpty();
+        verify(itemRepository, never()).findAvailableByIds(anyCollection());
+    }
+
     @Test
     void shouldExceptionWithSearchNotFoundUser() {
-        when(userRepository.existsById(anyLong()))
-                .thenReturn(false);
+        when(userService.getUserById(anyLong()))
+                .thenThrow(new EntityNotFoundException("Пользователь не найден"));
         when(itemRepository.search(anyString(), any(Pageable.class)))
-                .thenReturn(new PageImpl<>(items));
+                .thenReturn(items);
 
         assertThrows(EntityNotFoundException.class, () -> itemService.search(1L, "text", page));
-        verify(userRepository, times(1)).existsById(anyLong());
+        verify(userService, times(1)).getUserById(anyLong());
         verify(itemRequestRepository, never()).findById(anyLong());
         verify(commentRepository, never()).findById(anyLong());
         verify(itemRepository, never()).search(anyString(), any(Pageable.class));
@@ -541,16 +634,14 @@ class ItemServiceTest {
 
     @Test
     void shouldGetEmptyListWithSearchWithBlankText() {
-        when(userRepository.existsById(anyLong()))
-                .thenReturn(true);
         when(itemRepository.search(anyString(), any(Pageable.class)))
-                .thenReturn(new PageImpl<>(items));
+                .thenReturn(items);
 
         List<ItemDto> items = itemService.search(1L, " ", page);
 
         assertThat(items).asList()
                 .isEmpty();
-        verify(userRepository, times(1)).existsById(anyLong());
+        verify(userService, times(1)).getUserById(anyLong());
         verify(itemRequestRepository, never()).findById(anyLong());
         verify(commentRepository, never()).findById(anyLong());
         verify(itemRepository, never()).search(anyString(), any(Pageable.class));
@@ -558,10 +649,10 @@ class ItemServiceTest {
 
     @Test
     void shouldCreateComment() {
-        item.setBookings(Set.of(booking));
-
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.of(user2));
+        when(userRepository.getReferenceById(anyLong()))
+                .thenReturn(user2);
+        when(bookingRepository.existsFinishedByItemAndBooker(anyLong(), anyLong(), any(LocalDateTime.class)))
+                .thenReturn(true);
         when(itemRepository.findByIdWithOwner(anyLong()))
                 .thenReturn(Optional.of(item));
         when(commentRepository.save(any(Comment.class)))
@@ -571,7 +662,8 @@ class ItemServiceTest {
 
         itemService.addComment(2L, 1L, creatingCommentDto);
 
-        verify(userRepository, times(1)).findById(anyLong());
+        verify(itemRepository, times(1)).incrementVersion(1L);
+        verify(userService, times(1)).getUserById(anyLong());
         verify(itemRequestRepository, never()).findById(anyLong());
         verify(commentRepository, never()).findById(anyLong());
         verify(itemRepository, times(1)).findByIdWithOwner(anyLong());
@@ -580,15 +672,15 @@ class ItemServiceTest {
 
     @Test
     void shouldGetExceptionWithCreateCommentWithNotFoundUser() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.empty());
+        when(userService.getUserById(anyLong()))
+                .thenThrow(new EntityNotFoundException("Пользователь не найден"));
         when(itemRepository.findByIdWithOwner(anyLong()))
                 .thenReturn(Optional.of(item));
         when(commentRepository.save(any(Comment.class)))
                 .thenReturn(comment);
 
         assertThrows(EntityNotFoundException.class, () -> itemService.addComment(1L, 1L, creatingCommentDto));
-        verify(userRepository, times(1)).findById(anyLong());
+        verify(userService, times(1)).getUserById(anyLong());
         verify(itemRequestRepository, never()).findById(anyLong());
         verify(commentRepository, never()).findById(anyLong());
         verify(itemRepository, never()).findById(anyLong());
@@ -597,15 +689,15 @@ class ItemServiceTest {
 
     @Test
     void shouldGetExceptionWithCreateCommentWithNotFoundItem() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.of(user));
+        when(userRepository.getReferenceById(anyLong()))
+                .thenReturn(user);
         when(itemRepository.findByIdWithOwner(anyLong()))
                 .thenReturn(Optional.empty());
         when(commentRepository.save(any(Comment.class)))
                 .thenReturn(comment);
 
         assertThrows(EntityNotFoundException.class, () -> itemService.addComment(1L, 1L, creatingCommentDto));
-        verify(userRepository, times(1)).findById(anyLong());
+        verify(userService, times(1)).getUserById(anyLong());
         verify(itemRequestRepository, never()).findById(anyLong());
         verify(commentRepository, never()).findById(anyLong());
         verify(itemRepository, times(1)).findByIdWithOwner(anyLong());
@@ -614,18 +706,50 @@ class ItemServiceTest {
 
     @Test
     void shouldGetExceptionWithCreateCommentWithNotFoundBooking() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.of(user2));
+        when(userRepository.getReferenceById(anyLong()))
+                .thenReturn(user2);
         when(itemRepository.findByIdWithOwner(anyLong()))
                 .thenReturn(Optional.of(item));
         when(commentRepository.save(any(Comment.class)))
                 .thenReturn(comment);
 
         assertThrows(NotAvailableBookingException.class, () -> itemService.addComment(1L, 1L, creatingCommentDto));
-        verify(userRepository, times(1)).findById(anyLong());
+        verify(userService, times(1)).getUserById(anyLong());
         verify(itemRequestRepository, never()).findById(anyLong());
         verify(commentRepository, never()).findById(anyLong());
         verify(itemRepository, times(1)).findByIdWithOwner(anyLong());
         verify(commentRepository, never()).save(any(Comment.class));
     }
+
+    private ItemDto itemDto() {
+        return ItemDto.builder()
+                .id(item.getId())
+                .comments(Collections.emptyList())
+                .build();
+    }
+
+    private ItemStateView itemState() {
+        ItemStateView state = Mockito.mock(ItemStateView.class);
+        when(state.getOwnerId()).thenReturn(user.getId());
+        when(state.getVersion()).thenReturn(2L);
+        return state;
+    }
+
+    @Test
+    void shouldGetExceptionWithAvailabilityWithNotFoundItem() {
+        LocalDateTime from = LocalDateTime.now();
+        when(itemRepository.existsById(anyLong()))
+                .thenReturn(false);
+
+        assertThrows(EntityNotFoundException.class, () -> itemService.getItemAvailability(1L, 666L, from, from.plusDays(1)));
+        verify(availabilityIndex, never()).getSlots(anyLong(), any(LocalDateTime.class), any(LocalDateTime.class));
+    }
+
+    @Test
+    void shouldGetExceptionWithAvailabilityWithInvalidRange() {
+        LocalDateTime from = LocalDateTime.now();
+
+        assertThrows(ValidationException.class, () -> itemService.getItemAvailability(1L, 1L, from, from));
+        verify(itemRepository, never()).existsById(anyLong());
+    }
 }
@@ -8,7 +8,11 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dal.BookingService;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.CreatingBookingDto;
 import ru.practicum.shareit.item.dal.ItemService;
+import ru.practicum.shareit.item.dto.availability.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.comment.CreatingCommentDto;
 import ru.practicum.shareit.item.dto.item.CreatingItemDto;
 import ru.practicum.shareit.item.dto.item.ItemDto;
@@ -18,6 +22,8 @@ import ru.practicum.shareit.user.dal.UserService;
 import ru.practicum.shareit.user.dto.CreatingUserDto;
 
 import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
@@ -29,6 +35,7 @@ import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 public class ItemIntegrationTest {
     private final ItemService itemService;
     private final UserService userService;
+    private final BookingService bookingService;
     private final EntityManager entityManager;
 
     private final CreatingItemDto creatingItemDto = CreatingItemDto.builder()
@@ -103,9 +110,32 @@ public class ItemIntegrationTest {
         assertThat(itemFromService).isNull();
     }
 
+    @Test
+    void shouldGetItemAvailability() {
+        LocalDateTime from = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        userService.addUser(CreatingUserDto.builder()
+                .name("booker")
+                .email("booker@ya.ru")
+                .build());
+        BookingDto booking = bookingService.addBooking(2L, CreatingBookingDto.builder()
+                .itemId(1L)
+                .start(from.plusHours(1))
+                .end(from.plusHours(2))
+                .build());
+        bookingService.approveBooking(1L, booking.getId(), true);
+
+        ItemAvailabilityDto availability = itemService.getItemAvailability(2L, 1L, from, from.plusHours(3));
+
+        assertThat(availability.getSlots().size()).isEqualTo(3);
+        assertThat(availability.getSlots().get(1))
+                .hasFieldOrPropertyWithValue("start", booking.getStart())
+                .hasFieldOrPropertyWithValue("end", booking.getEnd())
+                .hasFieldOrPropertyWithValue("available", false);
+    }
+
     @Test
     void shouldGetItemById() {
-        ItemDto itemFromService = itemService.getItemById(1L, 1L);
+        ItemDto itemFromService = itemService.getItemById(1L, 1L).getItem();
 
         assertThat(itemFromService)
                 .hasFieldOrPropertyWithValue("name", creatingItemDto.getName())
@@ -114,6 +144,48 @@ public class ItemIntegrationTest {
                 .hasFieldOrPropertyWithValue("requestId", creatingItemDto.getRequestId());
     }
 
+    @Test
+    void shouldChangeETagWhenItemViewChanges() {
+        userService.addUser(CreatingUserDto.builder()
+                .name("booker")
+                .email("booker@ya.ru")
+                .build());
+        String eTag = itemService.getItemETag(2L, 1L);
+
+        assertThat(itemService.getItemETag(1L, 1L)).isNull();
+
+        itemService.updateItem(1L, 1L, CreatingItemDto.builder()
+                .name("updated")
+                .build());
+        String updatedETag = itemService.getItemETag(2L, 1L);
+
+        assertThat(updatedETag).isNotEqualTo(eTag);
+
+        BookingDto booking = bookingService.addBooking(2L, CreatingBookingDto.builder()
+                .itemId(1L)
+                .start(LocalDateTime.now().minusDays(2))
+                .end(LocalDateTime.now().minusDays(1))
+                .build());
+
+        assertThat(itemService.getItemETag(2L, 1L)).isEqualTo(updatedETag);
+
+        bookingService.approveBooking(1L, booking.getId(), true);
+        String approvedETag = itemService.getItemETag(2L, 1L);
+
+        assertThat(approvedETag).isNotEqualTo(updatedETag);
+
+        itemService.addComment(2L, 1L, creatingCommentDto);
+        String commentedETag = itemService.getItemETag(2L, 1L);
+
+        assertThat(commentedETag).isNotEqualTo(approvedETag);
+
+        userService.updateUser(2L, CreatingUserDto.builder()
+                .name("renamed")
+                .build());
+
+        assertThat(itemService.getItemETag(2L, 1L)).isNotEqualTo(commentedETag);
+    }
+
     @Test
     void shouldGetAllItemsByUserId() {
         CreatingItemDto creatingItemDto2 = CreatingItemDto.builder()
@@ -171,6 +243,97 @@ public class ItemIntegrationTest {
                 });
     }
 
+    @Test
+    void shouldGetItemWithLastAndNextBooking() {
+        LocalDateTime now = LocalDateTime.now();
+
+        userService.addUser(CreatingUserDto.builder()
+                .name("booker")
+                .email("booker@ya.ru")
+                .build());
+        bookingService.addBooking(2L, CreatingBookingDto.builder()
+                .itemId(1L)
+                .start(now.minusDays(3))
+                .end(now.minusDays(2))
+                .build());
+        bookingService.addBooking(2L, CreatingBookingDto.builder()
+                .itemId(1L)
+                .start(now.minusDays(1))
+                .end(now.plusDays(1))
+                .build());
+        bookingService.addBooking(2L, CreatingBookingDto.builder()
+                .itemId(1L)
+                .start(now.plusDays(2))
+                .end(now.plusDays(3))
+                .build());
+        bookingService.addBooking(2L, CreatingBookingDto.builder()
+                .itemId(1L)
+                .start(now.plusDays(4))
+                .end(now.plusDays(5))
+                .build());
+        bookingService.approveBooking(1L, 1L, true);
+        bookingService.approveBooking(1L, 2L, true);
+        bookingService.approveBooking(1L, 3L, false);
+        bookingService.approveBooking(1L, 4L, true);
+
+        ItemDto itemFromService = itemService.getItemById(1L, 1L).getItem();
+        List<ItemDto> items = itemService.getAllItemsByUserId(1L, page);
+
+        assertThat(itemFromService)
+                .hasFieldOrPropertyWithValue("lastBooking.id", 2L)
+                .hasFieldOrPropertyWithValue("lastBooking.bookerId", 2L)
+                .hasFieldOrPropertyWithValue("nextBooking.id", 4L);
+        assertThat(items.get(0))
+                .hasFieldOrPropertyWithValue("lastBooking.id", 2L)
+                .hasFieldOrPropertyWithValue("nextBooking.id", 4L);
+        assertThat(itemService.getItemById(2L, 1L).getItem())
+                .hasFieldOrPropertyWithValue("lastBooking", null)
+                .hasFieldOrPropertyWithValue("nextBooking", null);
+    }
+
+    @Test
+    void shouldPageOwnerItemsWithComments() {
+        LocalDateTime now = LocalDateTime.now();
+
+        userService.addUser(CreatingUserDto.builder()
+                .name("booker")
+                .email("booker@ya.ru")
+                .build());
+        itemService.addItem(1L, CreatingItemDto.builder()
+                .name("itemName2")
+                .description("itemDescription2")
+                .available(true)
+                .build());
+        itemService.addItem(1L, CreatingItemDto.builder()
+                .name("itemName3")
+                .description("itemDescription3")
+                .available(true)
+                .build());
+        for (long itemId = 1; itemId <= 3; itemId++) {
+            bookingService.addBooking(2L, CreatingBookingDto.builder()
+                    .itemId(itemId)
+                    .start(now.minusDays(2))
+                    .end(now.minusDays(1))
+                    .build());
+            itemService.addComment(2L, itemId, creatingCommentDto);
+            itemService.addComment(2L, itemId, creatingCommentDto);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        List<ItemDto> firstPage = itemService.getAllItemsByUserId(1L, PageRequest.of(0, 2));
+        List<ItemDto> secondPage = itemService.getAllItemsByUserId(1L, PageRequest.of(1, 2));
+
+        assertThat(firstPage).asList().hasSize(2);
+        assertThat(secondPage).asList().hasSize(1);
+        assertThat(firstPage.get(0)).hasFieldOrPropertyWithValue("id", 1L);
+        assertThat(firstPage.get(1)).hasFieldOrPropertyWithValue("id", 2L);
+        assertThat(firstPage.get(1).getComments()).asList().hasSize(2);
+        assertThat(firstPage.get(1).getComments().get(0)).hasFieldOrPropertyWithValue("authorName", "booker");
+        assertThat(secondPage.get(0)).hasFieldOrPropertyWithValue("id", 3L);
+        assertThat(secondPage.get(0).getComments()).asList().hasSize(2);
+    }
+
     @Test
     void shouldBeSameComment() {
         Comment comment = Comment.builder()
@@ -4,8 +4,7 @@ import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
-import ru.practicum.shareit.booking.model.Booking;
-import ru.practicum.shareit.booking.StatusType;
+import ru.practicum.shareit.booking.dto.BookingDtoShort;
 import ru.practicum.shareit.item.dto.item.ItemDto;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
@@ -42,34 +41,28 @@ public class ItemMapperTest {
             .author(User.builder().build())
             .item(item)
             .build();
-    private static final Booking booking = Booking.builder()
+    private static final BookingDtoShort lastBooking = BookingDtoShort.builder()
             .id(1L)
-            .dateStart(now.minusDays(2))
-            .dateEnd(now.minusDays(1))
-            .item(item)
-            .booker(User.builder().build())
-            .status(StatusType.APPROVED)
+            .bookerId(2L)
             .build();
-    private static final Booking booking2 = Booking.builder()
+    private static final BookingDtoShort nextBooking = BookingDtoShort.builder()
             .id(2L)
-            .dateStart(now.plusDays(1))
-            .dateEnd(now.plusDays(2))
-            .item(item)
-            .booker(User.builder().build())
-            .status(StatusType.APPROVED)
+            .bookerId(3L)
             .build();
 
     @BeforeAll
     static void initialize() {
         item.setComments(Set.of(comment2, comment));
-        item.setBookings(Set.of(booking, booking2));
     }
 
     @Test
     void shouldGetItemDtoWithBooking() {
-        ItemDto itemDto = mapper.toDtoWithBooking(item);
+        ItemDto itemDto = mapper.toDtoWithBooking(item, lastBooking, nextBooking);
 
         assertThat(itemDto)
+                .hasFieldOrPropertyWithValue("id", 1L)
+                .hasFieldOrPropertyWithValue("lastBooking", lastBooking)
+                .hasFieldOrPropertyWithValue("nextBooking", nextBooking)
                 .satisfies(item ->
                         assertThat(item.getComments().get(0)).hasFieldOrPropertyWithValue("id", 2L));
     }
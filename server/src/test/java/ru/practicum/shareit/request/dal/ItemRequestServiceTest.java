@@ -13,6 +13,7 @@ import ru.practicum.shareit.request.dto.CreatingItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.mapper.ItemRequestMapper;
 import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.dal.UserService;
 import ru.practicum.shareit.user.dao.UserRepository;
 import ru.practicum.shareit.user.model.User;
 
@@ -35,6 +36,7 @@ class ItemRequestServiceTest {
     public static ItemRepository itemRepository;
     private static ItemRequestService requestService;
     private static ItemRequestRepository requestRepository;
+    private static UserService userService;
     private final LocalDateTime now = LocalDateTime.now();
     private final User user = User.builder()
             .id(1L)
@@ -64,13 +66,14 @@ class ItemRequestServiceTest {
         userRepository = Mockito.mock(UserRepository.class);
         itemRepository = Mockito.mock(ItemRepository.class);
         requestRepository = Mockito.mock(ItemRequestRepository.class);
-        requestService = new ItemRequestServiceImpl(userRepository, itemRepository, requestRepository, itemRequestMapper);
+        userService = Mockito.mock(UserService.class);
+        requestService = new ItemRequestServiceImpl(userRepository, itemRepository, requestRepository, itemRequestMapper, userService);
     }
 
     @Test
     void shouldCreateRequest() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.of(user));
+        when(userRepository.getReferenceById(anyLong()))
+                .thenReturn(user);
         when(requestRepository.save(any(ItemRequest.class)))
                 .thenReturn(itemRequest);
 
@@ -80,26 +83,24 @@ class ItemRequestServiceTest {
                 .hasFieldOrPropertyWithValue("id", 1L)
                 .hasFieldOrPropertyWithValue("description", requestDto.getDescription())
                 .hasFieldOrProperty("created");
-        verify(userRepository, times(1)).findById(anyLong());
+        verify(userService, times(1)).getUserById(anyLong());
         verify(requestRepository, times(1)).save(any(ItemRequest.class));
     }
 
     @Test
     void shouldGetExceptionWithCreateRequestNotFoundUser() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.empty());
+        when(userService.getUserById(anyLong()))
+                .thenThrow(new EntityNotFoundException("Пользователь не найден"));
         when(requestRepository.save(any(ItemRequest.class)))
                 .thenReturn(itemRequest);
 
         assertThrows(EntityNotFoundException.class, () -> requestService.addItemRequest(user.getId(), requestDto));
-        verify(userRepository, times(1)).findById(anyLong());
+        verify(userService, times(1)).getUserById(anyLong());
         verify(requestRepository, never()).save(any(ItemRequest.class));
     }
 
     @Test
     void shouldGetRequestById() {
-        when(userRepository.existsById(anyLong()))
-                .thenReturn(true);
         when(requestRepository.findById(anyLong()))
                 .thenReturn(Optional.ofNullable(itemRequest));
 
@@ -110,39 +111,35 @@ class ItemRequestServiceTest {
                 .hasFieldOrPropertyWithValue("description", requestDto.getDescription())
                 .hasFieldOrProperty("created")
                 .hasFieldOrPropertyWithValue("items", new ArrayList<>());
-        verify(userRepository, times(1)).existsById(anyLong());
+        verify(userService, times(1)).getUserById(anyLong());
         verify(requestRepository, times(1)).findById(anyLong());
     }
 
     @Test
     void shouldGetExceptionWithRequestByIdNotFoundUser() {
-        when(userRepository.existsById(anyLong()))
-                .thenReturn(false);
+        when(userService.getUserById(anyLong()))
+                .thenThrow(new EntityNotFoundException("Пользователь не найден"));
         when(requestRepository.findById(anyLong()))
                 .thenReturn(Optional.ofNullable(itemRequest));
 
         assertThrows(EntityNotFoundException.class, () -> requestService.getItemRequest(user.getId(), itemRequest.getId()));
-        verify(userRepository, times(1)).existsById(anyLong());
+        verify(userService, times(1)).getUserById(anyLong());
         verify(requestRepository, never()).findById(anyLong());
     }
 
     @Test
     void shouldGetExceptionWithRequestByIdNotFoundRequest() {
-        when(userRepository.existsById(anyLong()))
-                .thenReturn(true);
         when(requestRepository.findById(anyLong()))
                 .thenReturn(Optional.empty());
 
         assertThrows(EntityNotFoundException.class, () -> requestService.getItemRequest(user.getId(), itemRequest.getId()));
-        verify(userRepository, times(1)).existsById(anyLong());
+        verify(userService, times(1)).getUserById(anyLong());
         verify(requestRepository, times(1)).findById(anyLong());
     }
 
     @Test
     void shouldGetAllRequestsByUserId() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.of(user));
-        when(requestRepository.findAllByRequester(any(User.class)))
+        when(requestRepository.findAllByRequesterId(anyLong()))
                 .thenReturn(requests);
 
         List<ItemRequestDto> requests = requestService.getOwnerItemRequests(user.getId());
@@ -153,28 +150,39 @@ class ItemRequestServiceTest {
                         .hasFieldOrPropertyWithValue("description", requestDto.getDescription())
                         .hasFieldOrProperty("created")
                         .hasFieldOrPropertyWithValue("items", new ArrayList<>()));
-        verify(userRepository, times(1)).findById(anyLong());
-        verify(requestRepository, times(1)).findAllByRequester(any(User.class));
+        verify(userService, never()).getUserById(anyLong());
+        verify(userRepository, never()).findById(anyLong());
+        verify(requestRepository, times(1)).findAllByRequesterId(user.getId());
+    }
+
+    @Test
+    void shouldGetEmptyRequestsByUserIdWithoutRequests() {
+        when(requestRepository.findAllByRequesterId(anyLong()))
+                .thenReturn(List.of());
+
+        List<ItemRequestDto> requests = requestService.getOwnerItemRequests(user.getId());
+
+        assertThat(requests).asList()
+                .isEmpty();
+        verify(userService, times(1)).getUserById(anyLong());
     }
 
     @Test
     void shouldGetExceptionWithGetAllRequestsByUserIdNotFoundUser() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.empty());
-        when(requestRepository.findAllByRequester(any(User.class)))
-                .thenReturn(requests);
+        when(userService.getUserById(anyLong()))
+                .thenThrow(new EntityNotFoundException("Пользователь не найден"));
+        when(requestRepository.findAllByRequesterId(anyLong()))
+                .thenReturn(List.of());
 
         assertThrows(EntityNotFoundException.class, () -> requestService.getOwnerItemRequests(user.getId()));
-        verify(userRepository, times(1)).findById(anyLong());
-        verify(requestRepository, never()).findAllByRequester(any(User.class));
+        verify(userService, times(1)).getUserById(anyLong());
+        verify(requestRepository, times(1)).findAllByRequesterId(anyLong());
     }
 
     @Test
     void shouldGetAllRequests() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.of(user));
-        when(requestRepository.findAllByRequesterNot(any(User.class), any(Pageable.class)))
-                .thenReturn(listItemRequestToPage());
+        when(requestRepository.findAllByRequesterIdNot(anyLong(), any(Pageable.class)))
+                .thenReturn(requests.subList(0, 2));
 
         List<ItemRequestDto> requests = requestService.getAllItemRequests(user.getId(), page);
 
@@ -184,25 +192,20 @@ class ItemRequestServiceTest {
                         .hasFieldOrPropertyWithValue("description", requestDto.getDescription())
                         .hasFieldOrProperty("created")
                         .hasFieldOrPropertyWithValue("items", new ArrayList<>()));
-        verify(userRepository, times(1)).findById(anyLong());
-        verify(requestRepository, times(1)).findAllByRequesterNot(any(User.class), any(Pageable.class));
+        verify(userService, times(1)).getUserById(anyLong());
+        verify(userRepository, never()).findById(anyLong());
+        verify(requestRepository, times(1)).findAllByRequesterIdNot(anyLong(), any(Pageable.class));
     }
 
     @Test
     void shouldGetExceptionWithGetAllRequestsNotFoundUser() {
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.empty());
-        when(requestRepository.findAllByRequesterNot(any(User.class), any(Pageable.class)))
-                .thenReturn(listItemRequestToPage());
+        when(userService.getUserById(anyLong()))
+                .thenThrow(new EntityNotFoundException("Пользователь не найден"));
+        when(requestRepository.findAllByRequesterIdNot(anyLong(), any(Pageable.class)))
+                .thenReturn(requests.subList(0, 2));
 
         assertThrows(EntityNotFoundException.class, () -> requestService.getAllItemRequests(user.getId(), page));
-        verify(userRepository, times(1)).findById(anyLong());
-        verify(requestRepository, never()).findAllByRequesterNot(any(User.class), any(Pageable.class));
-    }
-
-    private Page<ItemRequest> listItemRequestToPage() {
-        return new PageImpl<>(requests.subList(0, 2),
-                PageRequest.of(0, 2),
-                requests.size());
+        verify(userService, times(1)).getUserById(anyLong());
+        verify(requestRepository, never()).findAllByRequesterIdNot(anyLong(), any(Pageable.class));
     }
 }
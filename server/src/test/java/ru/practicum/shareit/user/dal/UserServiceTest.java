@@ -10,6 +10,7 @@ import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.test.annotation.DirtiesContext;
 import ru.practicum.shareit.exception.AlreadyExistsException;
 import ru.practicum.shareit.exception.EntityNotFoundException;
+import ru.practicum.shareit.item.dao.ItemRepository;
 import ru.practicum.shareit.user.dao.UserRepository;
 import ru.practicum.shareit.user.dto.CreatingUserDto;
 import ru.practicum.shareit.user.dto.UserDto;
@@ -57,7 +58,7 @@ class UserServiceTest {
     void initialize() {
         repository = Mockito.mock(UserRepository.class);
         userMapper = Mockito.mock(UserMapper.class);
-        service = new UserServiceImpl(repository, userMapper);
+        service = new UserServiceImpl(repository, Mockito.mock(ItemRepository.class), userMapper);
     }
 
     @Test
@@ -0,0 +1,76 @@
+package ru.practicum.shareit.user.dao;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.config.CacheConfig;
+import ru.practicum.shareit.exception.EntityNotFoundException;
+import ru.practicum.shareit.user.dal.UserService;
+import ru.practicum.shareit.user.dto.CreatingUserDto;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:user-cache")
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class UserCacheTest {
+    private final UserService service;
+    private final CacheManager cacheManager;
+    private final MeterRegistry meterRegistry;
+    private final CreatingUserDto creatingUserDto = CreatingUserDto.builder()
+            .name("name")
+            .email("email@ya.ru")
+            .build();
+
+    @Test
+    void shouldServeRepeatedLookupsFromCache() {
+        UserDto user = service.addUser(creatingUserDto);
+
+        service.getUserById(user.getId());
+        service.getUserById(user.getId());
+
+        assertThat(meterRegistry.get("cache.gets")
+                .tag("cache", CacheConfig.USERS)
+                .tag("result", "hit")
+                .functionCounter()
+                .count()).isEqualTo(2);
+        assertThat(getCache().get(user.getId(), UserDto.class))
+                .hasFieldOrPropertyWithValue("name", "name");
+    }
+
+    @Test
+    void shouldRefreshCacheOnUpdate() {
+        UserDto user = service.addUser(creatingUserDto);
+        service.getUserById(user.getId());
+
+        service.updateUser(user.getId(), CreatingUserDto.builder()
+                .name("updated")
+                .build());
+
+        assertThat(service.getUserById(user.getId()))
+                .hasFieldOrPropertyWithValue("name", "updated")
+                .hasFieldOrPropertyWithValue("email", "email@ya.ru");
+    }
+
+    @Test
+    void shouldEvictCacheOnDelete() {
+        UserDto user = service.addUser(creatingUserDto);
+        service.getUserById(user.getId());
+
+        service.deleteUser(user.getId());
+
+        assertThat(getCache().get(user.getId())).isNull();
+        assertThrows(EntityNotFoundException.class, () -> service.getUserById(user.getId()));
+    }
+
+    private Cache getCache() {
+        return cacheManager.getCache(CacheConfig.USERS);
+    }
+}
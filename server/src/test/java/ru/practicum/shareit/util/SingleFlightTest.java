@@ -0,0 +1,111 @@
+package ru.practicum.shareit.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.exception.EntityNotFoundException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SingleFlightTest {
+    private static final int CALLERS = 8;
+
+    private final SingleFlight<Long, String> singleFlight = new SingleFlight<>();
+    private final ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+    private final AtomicInteger loads = new AtomicInteger();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void shouldShareLoadBetweenConcurrentCallers() throws Exception {
+        List<Future<String>> results = startCallers(() -> {
+            await(release);
+            return "item-" + loads.incrementAndGet();
+        });
+
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("item-1");
+        }
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void shouldPropagateLoaderExceptionToWaitingCallers() throws Exception {
+        List<Future<String>> results = startCallers(() -> {
+            loads.incrementAndGet();
+            await(release);
+            throw new EntityNotFoundException("Вещь с ID = 1 не найдена");
+        });
+
+        release.countDown();
+
+        for (Future<String> result : results) {
+            ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertThat(e.getCause()).isInstanceOf(EntityNotFoundException.class);
+        }
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void shouldLoadAgainAfterFlightCompleted() {
+        singleFlight.load(1L, () -> "item-" + loads.incrementAndGet());
+
+        assertThat(singleFlight.load(1L, () -> "item-" + loads.incrementAndGet())).isEqualTo("item-2");
+        assertThat(singleFlight.load(2L, () -> "item-" + loads.incrementAndGet())).isEqualTo("item-3");
+    }
+
+    private List<Future<String>> startCallers(Callable<String> loader) throws InterruptedException {
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+
+        results.add(executor.submit(() -> singleFlight.load(1L, () -> {
+            leaderStarted.countDown();
+            return call(loader);
+        })));
+        await(leaderStarted);
+
+        List<Thread> followers = new CopyOnWriteArrayList<>();
+        for (int i = 1; i < CALLERS; i++) {
+            results.add(executor.submit(() -> {
+                followers.add(Thread.currentThread());
+                return singleFlight.load(1L, () -> call(loader));
+            }));
+        }
+
+        while (followers.size() < CALLERS - 1
+                || followers.stream().anyMatch(thread -> thread.getState() != Thread.State.WAITING)) {
+            Thread.sleep(5);
+        }
+
+        return results;
+    }
+
+    private static String call(Callable<String> loader) {
+        try {
+            return loader.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}